@@ -1,10 +1,12 @@
 package com.company.sociallogin;
 
+import com.company.sociallogin.datasource.PoolMonitor;
 import com.google.common.base.Strings;
 import com.vaadin.flow.component.page.AppShellConfigurator;
 import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.server.PWA;
 import com.vaadin.flow.theme.Theme;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
@@ -16,6 +18,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.sql.DataSource;
 
@@ -23,11 +26,15 @@ import javax.sql.DataSource;
 @Theme(value = "sample-social-login")
 @PWA(name = "Sample Social Login", shortName = "Sample Social Login")
 @SpringBootApplication
+@EnableScheduling
 public class SampleSocialLoginApplication implements AppShellConfigurator {
 
     @Autowired
     private Environment environment;
 
+    @Autowired
+    private StartupWarmUp startupWarmUp;
+
     public static void main(String[] args) {
         SpringApplication.run(SampleSocialLoginApplication.class, args);
     }
@@ -42,8 +49,12 @@ public class SampleSocialLoginApplication implements AppShellConfigurator {
     @Bean
     @Primary
     @ConfigurationProperties("main.datasource.hikari")
-    DataSource dataSource(final DataSourceProperties dataSourceProperties) {
-        return dataSourceProperties.initializeDataSourceBuilder().build();
+    DataSource dataSource(final DataSourceProperties dataSourceProperties, final PoolMonitor poolMonitor) {
+        final DataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().build();
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            hikariDataSource.setMetricsTrackerFactory(poolMonitor);
+        }
+        return dataSource;
     }
 
     @EventListener
@@ -52,5 +63,7 @@ public class SampleSocialLoginApplication implements AppShellConfigurator {
                 + "http://localhost:"
                 + environment.getProperty("local.server.port")
                 + Strings.nullToEmpty(environment.getProperty("server.servlet.context-path")));
+
+        startupWarmUp.run();
     }
 }
@@ -0,0 +1,151 @@
+package com.company.sociallogin;
+
+import com.company.sociallogin.entity.User;
+import com.company.sociallogin.security.SocialUserMapping;
+import com.company.sociallogin.security.SocialUserMappings;
+import com.zaxxer.hikari.HikariDataSource;
+import io.jmix.core.Metadata;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.security.SystemAuthenticator;
+import io.jmix.flowui.view.ViewRegistry;
+import io.jmix.flowui.view.ViewXmlLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warms up the application before it reports readiness, so the first login after a deploy does not
+ * pay for lazy initialization: fills the connection pool to its minimum size, runs typical {@link User}
+ * queries, exercises the social user mapping with synthetic payloads and preloads view descriptors.
+ * <p>
+ * Invoked synchronously from the {@code ApplicationStartedEvent} listener. Spring Boot switches the
+ * readiness state to {@code ACCEPTING_TRAFFIC} only after all such listeners have completed.
+ */
+@Component
+public class StartupWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    @Value("${sociallogin.warmup.enabled:true}")
+    private boolean enabled;
+    @Value("${sociallogin.warmup.iterations:50}")
+    private int iterations;
+    @Value("${sociallogin.warmup.view-ids:LoginView,MainView,User.list,User.detail}")
+    private List<String> viewIds;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private UnconstrainedDataManager dataManager;
+    @Autowired
+    private SystemAuthenticator systemAuthenticator;
+    @Autowired
+    private Metadata metadata;
+    @Autowired
+    private SocialUserMappings socialUserMappings;
+    @Autowired
+    private ViewRegistry viewRegistry;
+    @Autowired
+    private ViewXmlLoader viewXmlLoader;
+
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        // Every step is best effort: a failed warm-up must not prevent the application from starting
+        runStep("connection pool", this::fillConnectionPool);
+        runStep("user queries", () -> systemAuthenticator.runWithSystem(this::loadUsers));
+        runStep("social user mapping", this::mapSyntheticUsers);
+        runStep("view descriptors", this::loadViewDescriptors);
+        log.info("Warm-up finished in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private void runStep(String name, Runnable step) {
+        long start = System.currentTimeMillis();
+        try {
+            step.run();
+            log.debug("Warm-up of {} took {} ms", name, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up of {} failed: {}", name, e.toString());
+        }
+    }
+
+    private void fillConnectionPool() {
+        HikariDataSource hikariDataSource;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot access the connection pool", e);
+        }
+        // Holding minimumIdle connections at once makes the pool open all of them now rather than on demand
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < hikariDataSource.getMinimumIdle(); i++) {
+                connections.add(hikariDataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open connection", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Cannot return connection to the pool", e);
+                }
+            }
+        }
+    }
+
+    private void loadUsers() {
+        for (int i = 0; i < iterations; i++) {
+            dataManager.load(User.class)
+                    .query("e.username = ?1", "admin")
+                    .optional();
+            dataManager.load(User.class)
+                    .query("e.username = ?1", "github:0")
+                    .optional();
+            dataManager.load(User.class)
+                    .query("select e from User e order by e.username")
+                    .maxResults(50)
+                    .list();
+        }
+    }
+
+    private void mapSyntheticUsers() {
+        // Claims commonly used by providers, so that every configured mapping takes its usual path
+        Map<String, Object> attributes = Map.of(
+                "id", 0,
+                "sub", "0",
+                "email", "warm-up@example.com",
+                "name", "Warm Up",
+                "given_name", "Warm",
+                "family_name", "Up");
+        for (int i = 0; i < iterations; i++) {
+            for (SocialUserMapping mapping : socialUserMappings.getAll()) {
+                User jmixUser = metadata.create(User.class);
+                jmixUser.setUsername(mapping.getUsername(attributes));
+                mapping.apply(jmixUser, attributes);
+            }
+        }
+    }
+
+    private void loadViewDescriptors() {
+        for (String viewId : viewIds) {
+            viewRegistry.getViewInfo(viewId).getTemplatePath()
+                    .ifPresent(viewXmlLoader::load);
+        }
+    }
+}
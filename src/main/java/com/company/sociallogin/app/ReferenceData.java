@@ -0,0 +1,47 @@
+package com.company.sociallogin.app;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import io.jmix.core.CoreProperties;
+import io.jmix.core.MessageTools;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.function.Function;
+
+/**
+ * Application-wide reference data for selection components. Each item set is built on first use
+ * and shared by all UIs.
+ */
+@Component
+public class ReferenceData {
+
+    @Autowired
+    private CoreProperties coreProperties;
+    @Autowired
+    private MessageTools messageTools;
+
+    private final Supplier<ReferenceItems<String>> timeZones = Suppliers.memoize(() ->
+            new ReferenceItems<>(List.of(TimeZone.getAvailableIDs()), Function.identity()));
+
+    private final Supplier<ReferenceItems<Locale>> locales = Suppliers.memoize(() ->
+            new ReferenceItems<>(coreProperties.getAvailableLocales(), messageTools::getLocaleDisplayName, false));
+
+    /**
+     * Returns identifiers of all time zones known to the JVM.
+     */
+    public ReferenceItems<String> getTimeZones() {
+        return timeZones.get();
+    }
+
+    /**
+     * Returns locales configured by {@code jmix.core.available-locales} in configuration order, labeled with their
+     * display names.
+     */
+    public ReferenceItems<Locale> getLocales() {
+        return locales.get();
+    }
+}
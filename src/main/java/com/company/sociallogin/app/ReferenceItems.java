@@ -0,0 +1,141 @@
+package com.company.sociallogin.app;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable set of items with display labels, sorted by label unless their own order is meaningful, and
+ * indexed for filtering.
+ * <p>
+ * The index holds every suffix of a label that starts at a word boundary, sorted, so a filter text matching
+ * the beginning of any word of a label ("berlin" for "Europe/Berlin") is found by binary search instead of
+ * scanning all labels. Instances are shared between UIs; components get their own lightweight data
+ * providers through {@link #createDataProvider()}.
+ */
+public final class ReferenceItems<T> {
+
+    private final List<T> items;
+    private final Map<T, String> labels;
+    private final String[] indexKeys;
+    private final int[] indexItems;
+
+    public ReferenceItems(Collection<T> items, Function<T, String> labelProvider) {
+        this(items, labelProvider, true);
+    }
+
+    /**
+     * @param sortByLabel whether to sort items by label, otherwise they keep the iteration order of {@code items}
+     */
+    public ReferenceItems(Collection<T> items, Function<T, String> labelProvider, boolean sortByLabel) {
+        List<T> sortedItems = new ArrayList<>(items);
+        if (sortByLabel) {
+            sortedItems.sort(Comparator.comparing(labelProvider, String.CASE_INSENSITIVE_ORDER));
+        }
+        this.items = Collections.unmodifiableList(sortedItems);
+
+        Map<T, String> labelMap = new LinkedHashMap<>();
+        List<IndexEntry> entries = new ArrayList<>();
+        for (int i = 0; i < sortedItems.size(); i++) {
+            T item = sortedItems.get(i);
+            String label = labelProvider.apply(item);
+            labelMap.put(item, label);
+
+            String key = normalize(label);
+            for (int start = 0; start < key.length(); start++) {
+                if (start == 0 || isSeparator(key.charAt(start - 1)) && !isSeparator(key.charAt(start))) {
+                    entries.add(new IndexEntry(key.substring(start), i));
+                }
+            }
+        }
+        this.labels = Collections.unmodifiableMap(labelMap);
+
+        entries.sort(Comparator.comparing(IndexEntry::key));
+        this.indexKeys = new String[entries.size()];
+        this.indexItems = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            indexKeys[i] = entries.get(i).key();
+            indexItems[i] = entries.get(i).item();
+        }
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns items mapped to their labels, in item order.
+     */
+    public Map<T, String> getLabels() {
+        return labels;
+    }
+
+    public String getLabel(T item) {
+        return labels.get(item);
+    }
+
+    /**
+     * Returns items, in item order, having a word of the label that starts with the given text.
+     */
+    public List<T> filter(@Nullable String text) {
+        if (text == null || text.isBlank()) {
+            return items;
+        }
+        String prefix = normalize(text.strip());
+        BitSet matches = new BitSet(items.size());
+        for (int i = lowerBound(prefix); i < indexKeys.length && indexKeys[i].startsWith(prefix); i++) {
+            matches.set(indexItems[i]);
+        }
+        List<T> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(items.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Creates a data provider for a single component. Filtering is performed on the shared index.
+     */
+    public CallbackDataProvider<T, String> createDataProvider() {
+        return new CallbackDataProvider<>(
+                query -> filter(query.getFilter().orElse(null)).stream()
+                        .skip(query.getOffset())
+                        .limit(query.getLimit()),
+                query -> filter(query.getFilter().orElse(null)).size());
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = indexKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (indexKeys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('_', ' ');
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '/' || c == '-' || c == '(' || c == ',' || c == '.';
+    }
+
+    private record IndexEntry(String key, int item) {
+    }
+}
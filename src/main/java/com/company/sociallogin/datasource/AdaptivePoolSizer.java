@@ -0,0 +1,93 @@
+package com.company.sociallogin.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the maximum size of the main data source pool between {@code min-size} and {@code max-size}.
+ * <p>
+ * The pool is sampled every second. While threads are waiting for a connection, the size grows by
+ * {@code grow-step} or by the number of waiting threads, whichever is larger. After {@code shrink-after}
+ * consecutive samples without waiting threads and with at most half of the connections in use, it shrinks
+ * by {@code grow-step}. Hikari closes surplus idle connections on its own schedule.
+ */
+@Component
+public class AdaptivePoolSizer {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int maxSize;
+    private final int growStep;
+    private final int shrinkAfter;
+    private final HikariDataSource hikariDataSource;
+
+    private int calmSamples;
+
+    public AdaptivePoolSizer(@Value("${sociallogin.datasource.adaptive.enabled:false}") boolean enabled,
+                             @Value("${sociallogin.datasource.adaptive.min-size:5}") int minSize,
+                             @Value("${sociallogin.datasource.adaptive.max-size:30}") int maxSize,
+                             @Value("${sociallogin.datasource.adaptive.grow-step:2}") int growStep,
+                             @Value("${sociallogin.datasource.adaptive.shrink-after:60}") int shrinkAfter,
+                             DataSource dataSource) throws SQLException {
+        if (enabled && (minSize < 1 || maxSize < minSize || growStep < 1)) {
+            throw new IllegalArgumentException("Invalid adaptive pool size bounds: min-size " + minSize
+                    + ", max-size " + maxSize + ", grow-step " + growStep);
+        }
+        this.enabled = enabled && dataSource.isWrapperFor(HikariDataSource.class);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.growStep = growStep;
+        this.shrinkAfter = shrinkAfter;
+        this.hikariDataSource = this.enabled ? dataSource.unwrap(HikariDataSource.class) : null;
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public synchronized void adjust() {
+        if (!enabled) {
+            return;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            // The pool is started on the first connection request
+            return;
+        }
+        int size = hikariDataSource.getMaximumPoolSize();
+        int pending = pool.getThreadsAwaitingConnection();
+        int nextSize = nextSize(size, pending, pool.getActiveConnections());
+        if (nextSize != size) {
+            log.info("Resizing connection pool from {} to {} connections, {} threads waiting", size, nextSize, pending);
+            if (nextSize < hikariDataSource.getMinimumIdle()) {
+                hikariDataSource.setMinimumIdle(nextSize);
+            }
+            hikariDataSource.setMaximumPoolSize(nextSize);
+        }
+    }
+
+    int nextSize(int size, int pending, int active) {
+        if (pending > 0) {
+            calmSamples = 0;
+            return Math.max(minSize, Math.min(maxSize, size + Math.max(growStep, pending)));
+        }
+        if (active <= size / 2) {
+            calmSamples++;
+        } else {
+            calmSamples = 0;
+        }
+        if (calmSamples >= shrinkAfter) {
+            calmSamples = 0;
+            return Math.min(maxSize, Math.max(minSize, size - growStep));
+        }
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -0,0 +1,99 @@
+package com.company.sociallogin.datasource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with fixed buckets from 0.1 ms to 10 s. Recording is lock-free, so it can be
+ * called on every connection acquisition.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MICROS = {
+            100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, or the maximum for the last bucket.
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = getCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BOUNDS_MICROS[i] / 1_000.0;
+            }
+        }
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public Map<String, Object> snapshot() {
+        long[] counts = getCounts();
+        long count = 0;
+        Map<String, Long> bucketMap = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            String bucket = i < BOUNDS_MICROS.length ? "le " + BOUNDS_MICROS[i] / 1_000.0 + " ms" : "inf";
+            bucketMap.put(bucket, counts[i]);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", count);
+        result.put("meanMillis", count > 0 ? totalNanos.sum() / 1_000_000.0 / count : 0);
+        result.put("p50Millis", getPercentileMillis(0.5));
+        result.put("p95Millis", getPercentileMillis(0.95));
+        result.put("p99Millis", getPercentileMillis(0.99));
+        result.put("maxMillis", maxNanos.get() / 1_000_000.0);
+        result.put("buckets", bucketMap);
+        return result;
+    }
+
+    private long[] getCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+}
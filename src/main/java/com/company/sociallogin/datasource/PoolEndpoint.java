@@ -0,0 +1,52 @@
+package com.company.sociallogin.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint {@code /actuator/pool} with live state and statistics of the main data source pool.
+ */
+@Component
+@Endpoint(id = "pool")
+public class PoolEndpoint {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PoolMonitor poolMonitor;
+
+    @ReadOperation
+    public Map<String, Object> pool() throws SQLException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                result.put("active", pool.getActiveConnections());
+                result.put("idle", pool.getIdleConnections());
+                result.put("pending", pool.getThreadsAwaitingConnection());
+                result.put("total", pool.getTotalConnections());
+            }
+            result.put("minimumIdle", hikariDataSource.getMinimumIdle());
+            result.put("maximumPoolSize", hikariDataSource.getMaximumPoolSize());
+            result.put("maxLifetimeMillis", hikariDataSource.getMaxLifetime());
+            result.put("connectionTimeoutMillis", hikariDataSource.getConnectionTimeout());
+        }
+        result.put("acquireTime", poolMonitor.getAcquireTime().snapshot());
+        result.put("usageTime", poolMonitor.getUsageTime().snapshot());
+        result.put("creationTime", poolMonitor.getCreationTime().snapshot());
+        result.put("timeouts", poolMonitor.getTimeouts());
+        result.put("borrowingThreads", poolMonitor.getBorrowingThreads());
+        result.put("recentEvents", poolMonitor.getRecentEvents());
+        return result;
+    }
+}
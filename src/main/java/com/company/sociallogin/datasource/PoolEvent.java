@@ -0,0 +1,22 @@
+package com.company.sociallogin.datasource;
+
+import com.company.sociallogin.security.LoginPhase;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+
+/**
+ * Connection pool incident published by {@link PoolMonitor} as an application event.
+ *
+ * @param phase  login phase of the thread that requested the connection, {@code null} outside of login
+ * @param millis acquisition time for {@link Type#SLOW_ACQUIRE}, time the connection has been held for
+ *               {@link Type#LEAK_SUSPECTED}, 0 for {@link Type#ACQUIRE_TIMEOUT}
+ */
+public record PoolEvent(Type type, Instant time, @Nullable LoginPhase phase, String thread, long millis) {
+
+    public enum Type {
+        SLOW_ACQUIRE,
+        ACQUIRE_TIMEOUT,
+        LEAK_SUSPECTED
+    }
+}
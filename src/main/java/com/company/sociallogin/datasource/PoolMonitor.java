@@ -0,0 +1,235 @@
+package com.company.sociallogin.datasource;
+
+import com.company.sociallogin.security.LoginPhase;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collects statistics and incidents of the main data source connection pool. Registered as the Hikari
+ * metrics tracker factory by {@code SampleSocialLoginApplication.dataSource()}; the standard Micrometer
+ * {@code hikaricp.*} meters are still recorded when a {@link MeterRegistry} is available.
+ * <p>
+ * Hikari reports acquisitions, timeouts and returns on the thread using the connection, so every incident
+ * is linked to the {@link LoginPhase} of that thread:
+ * <ul>
+ *     <li>{@code SLOW_ACQUIRE} - waiting for a connection took longer than {@code slow-acquire-threshold};</li>
+ *     <li>{@code ACQUIRE_TIMEOUT} - no connection was available within the pool connection timeout;</li>
+ *     <li>{@code LEAK_SUSPECTED} - a thread has held a connection longer than {@code leak-threshold}.
+ *     The stack of the thread is logged. Connections returned by another thread than the one that
+ *     acquired them are not tracked correctly.</li>
+ * </ul>
+ * Incidents are logged, published as {@link PoolEvent}s and the last {@code recent-events} are kept
+ * for the {@code pool} actuator endpoint.
+ */
+@Component
+public class PoolMonitor implements MetricsTrackerFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolMonitor.class);
+
+    private final long slowAcquireThresholdNanos;
+    private final long leakThresholdMillis;
+    private final int recentEventsSize;
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private final ConcurrentHashMap<Thread, Borrow> borrows = new ConcurrentHashMap<>();
+    private final Deque<PoolEvent> recentEvents = new ArrayDeque<>();
+
+    public PoolMonitor(@Value("${sociallogin.datasource.monitor.slow-acquire-threshold:100ms}") Duration slowAcquireThreshold,
+                       @Value("${sociallogin.datasource.monitor.leak-threshold:30s}") Duration leakThreshold,
+                       @Value("${sociallogin.datasource.monitor.recent-events:50}") int recentEventsSize,
+                       ObjectProvider<MeterRegistry> meterRegistry,
+                       ApplicationEventPublisher eventPublisher) {
+        this(slowAcquireThreshold, leakThreshold, recentEventsSize, meterRegistry::getIfAvailable, eventPublisher);
+    }
+
+    PoolMonitor(Duration slowAcquireThreshold,
+                Duration leakThreshold,
+                int recentEventsSize,
+                Supplier<MeterRegistry> meterRegistry,
+                ApplicationEventPublisher eventPublisher) {
+        this.slowAcquireThresholdNanos = slowAcquireThreshold.toNanos();
+        this.leakThresholdMillis = leakThreshold.toMillis();
+        this.recentEventsSize = recentEventsSize;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        MeterRegistry registry = meterRegistry.get();
+        IMetricsTracker delegate = registry != null
+                ? new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats)
+                : new IMetricsTracker() {
+                };
+        return new Tracker(delegate);
+    }
+
+    /**
+     * Time spent waiting for a connection.
+     */
+    public LatencyHistogram getAcquireTime() {
+        return acquireTime;
+    }
+
+    /**
+     * Time from acquiring a connection to returning it to the pool.
+     */
+    public LatencyHistogram getUsageTime() {
+        return usageTime;
+    }
+
+    /**
+     * Time to open a physical connection.
+     */
+    public LatencyHistogram getCreationTime() {
+        return creationTime;
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Returns the number of threads currently holding a connection.
+     */
+    public int getBorrowingThreads() {
+        return borrows.size();
+    }
+
+    public List<PoolEvent> getRecentEvents() {
+        synchronized (recentEvents) {
+            return new ArrayList<>(recentEvents);
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.SECONDS)
+    public void checkLeaks() {
+        long now = System.currentTimeMillis();
+        borrows.forEach((thread, borrow) -> {
+            long heldMillis = now - borrow.startedAt;
+            if (!borrow.reported && heldMillis >= leakThresholdMillis) {
+                borrow.reported = true;
+                PoolEvent event = emit(PoolEvent.Type.LEAK_SUSPECTED, borrow.phase, thread, heldMillis);
+                if (log.isWarnEnabled()) {
+                    Throwable stack = new Throwable("Stack of thread " + thread.getName());
+                    stack.setStackTrace(thread.getStackTrace());
+                    log.warn("Connection held by thread '{}' for {} ms (login phase {}), possible leak",
+                            event.thread(), heldMillis, event.phase(), stack);
+                }
+            }
+        });
+    }
+
+    private PoolEvent emit(PoolEvent.Type type, @Nullable LoginPhase phase, Thread thread, long millis) {
+        PoolEvent event = new PoolEvent(type, Instant.now(), phase, thread.getName(), millis);
+        synchronized (recentEvents) {
+            if (recentEvents.size() >= recentEventsSize) {
+                recentEvents.removeFirst();
+            }
+            recentEvents.addLast(event);
+        }
+        if (type == PoolEvent.Type.SLOW_ACQUIRE) {
+            log.warn("Acquiring a connection took {} ms in thread '{}' (login phase {})", millis, event.thread(), phase);
+        } else if (type == PoolEvent.Type.ACQUIRE_TIMEOUT) {
+            log.warn("Acquiring a connection timed out in thread '{}' (login phase {})", event.thread(), phase);
+        }
+        eventPublisher.publishEvent(event);
+        return event;
+    }
+
+    private class Tracker implements IMetricsTracker {
+
+        private final IMetricsTracker delegate;
+
+        private Tracker(IMetricsTracker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+            creationTime.record(TimeUnit.MILLISECONDS.toNanos(connectionCreatedMillis));
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            acquireTime.record(elapsedAcquiredNanos);
+
+            LoginPhase phase = LoginPhase.current();
+            borrows.compute(Thread.currentThread(), (thread, borrow) -> {
+                if (borrow == null) {
+                    return new Borrow(System.currentTimeMillis(), phase);
+                }
+                borrow.depth++;
+                return borrow;
+            });
+            if (elapsedAcquiredNanos >= slowAcquireThresholdNanos) {
+                emit(PoolEvent.Type.SLOW_ACQUIRE, phase, Thread.currentThread(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos));
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            usageTime.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+
+            borrows.computeIfPresent(Thread.currentThread(), (thread, borrow) -> --borrow.depth > 0 ? borrow : null);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+            timeouts.increment();
+            emit(PoolEvent.Type.ACQUIRE_TIMEOUT, LoginPhase.current(), Thread.currentThread(), 0);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    // Connections held by one thread; mutated only by that thread inside map operations
+    private static class Borrow {
+
+        private final long startedAt;
+        @Nullable
+        private final LoginPhase phase;
+        private int depth = 1;
+        private volatile boolean reported;
+
+        private Borrow(long startedAt, @Nullable LoginPhase phase) {
+            this.startedAt = startedAt;
+            this.phase = phase;
+        }
+    }
+}
@@ -20,13 +20,15 @@ import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
 
 @JmixEntity
 @Entity
 @Table(name = "USER_", indexes = {
-        @Index(name = "IDX_USER__ON_USERNAME", columnList = "USERNAME", unique = true)
+        @Index(name = "IDX_USER__ON_USERNAME", columnList = "USERNAME", unique = true),
+        @Index(name = "IDX_USER__ON_LAST_LOGIN", columnList = "LAST_LOGIN")
 })
 // tag::user[]
 public class User implements JmixUserDetails, HasTimeZone, OidcUser {
@@ -58,6 +60,9 @@ public class User implements JmixUserDetails, HasTimeZone, OidcUser {
     protected Boolean active = true;
     @Column(name = "TIME_ZONE_ID")
     protected String timeZoneId;
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "LAST_LOGIN")
+    protected Date lastLogin;
 
     @Override
     public String getName() {
@@ -199,4 +204,12 @@ public class User implements JmixUserDetails, HasTimeZone, OidcUser {
     public void setTimeZoneId(final String timeZoneId) {
         this.timeZoneId = timeZoneId;
     }
+
+    public Date getLastLogin() {
+        return lastLogin;
+    }
+
+    public void setLastLogin(final Date lastLogin) {
+        this.lastLogin = lastLogin;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.company.sociallogin.liquibase;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Skips the Liquibase update of the main data store when the changelog set has not changed since the
+ * last successful update.
+ * <p>
+ * The digest covers the content of the application and Jmix changelog resources together with the
+ * master changelog path, contexts and labels, and is stored in {@code LIQUIBASE_DIGEST}. When the digest
+ * differs, one node claims the update in the same row and runs Liquibase, while other nodes poll the row
+ * without holding database locks until the new digest appears. A claim older than {@code stale-after}
+ * is considered abandoned by a failed node and may be taken over.
+ */
+@Component
+public class LiquibaseFastPath implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(LiquibaseFastPath.class);
+
+    private static final String[] CHANGELOG_PATTERNS = {
+            "classpath*:com/company/sociallogin/liquibase/**/*.xml",
+            "classpath*:io/jmix/**/liquibase/**/*.xml"
+    };
+    private static final String[] CHANGELOG_ROOTS = {"com/company/sociallogin/", "io/jmix/"};
+
+    private final ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver();
+    private final String node = ManagementFactory.getRuntimeMXBean().getName();
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof SpringLiquibase liquibase
+                && isMainChangeLog(liquibase)
+                && environment.getProperty("main.liquibase.enabled", Boolean.class, true)
+                && environment.getProperty("sociallogin.liquibase.fast-path.enabled", Boolean.class, true)) {
+            long start = System.currentTimeMillis();
+            String digest = computeDigest(liquibase);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(liquibase.getDataSource());
+            if (awaitDigestOrClaim(jdbcTemplate, digest)) {
+                log.info("Liquibase update skipped, changelog digest is current (checked in {} ms)",
+                        System.currentTimeMillis() - start);
+            } else {
+                runUpdate(liquibase, beanName, jdbcTemplate, digest);
+            }
+            // The update has been handled here, the container must not run it again
+            liquibase.setShouldRun(false);
+        }
+        return bean;
+    }
+
+    private boolean isMainChangeLog(SpringLiquibase liquibase) {
+        String mainChangeLog = environment.getProperty("main.liquibase.change-log");
+        return mainChangeLog != null && liquibase.getChangeLog() != null
+                && liquibase.getChangeLog().endsWith(mainChangeLog);
+    }
+
+    /**
+     * Returns {@code true} when the stored digest matches, {@code false} when this node has to run the update.
+     */
+    private boolean awaitDigestOrClaim(JdbcTemplate jdbcTemplate, String digest) {
+        Duration maxWait = environment.getProperty("sociallogin.liquibase.fast-path.max-wait",
+                Duration.class, Duration.ofMinutes(10));
+        Duration staleAfter = environment.getProperty("sociallogin.liquibase.fast-path.stale-after",
+                Duration.class, Duration.ofMinutes(15));
+        Instant deadline = Instant.now().plus(maxWait);
+        boolean waiting = false;
+        while (true) {
+            Map<String, Object> row;
+            try {
+                row = jdbcTemplate.queryForMap("select DIGEST from LIQUIBASE_DIGEST where ID = 1");
+            } catch (DataAccessException e) {
+                // The digest table is created by the first full update
+                log.debug("Changelog digest is not available: {}", e.toString());
+                return false;
+            }
+            if (digest.equals(row.get("DIGEST"))) {
+                return true;
+            }
+            int claimed = jdbcTemplate.update("update LIQUIBASE_DIGEST set RUNNING_NODE = ?, RUNNING_SINCE = ? " +
+                            "where ID = 1 and (RUNNING_NODE is null or RUNNING_SINCE < ?)",
+                    node, Timestamp.from(Instant.now()), Timestamp.from(Instant.now().minus(staleAfter)));
+            if (claimed == 1) {
+                return false;
+            }
+            if (Instant.now().isAfter(deadline)) {
+                log.warn("Liquibase update is still claimed by another node, running it on this node");
+                return false;
+            }
+            if (!waiting) {
+                log.info("Liquibase update is running on another node, waiting for it to finish");
+                waiting = true;
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private void runUpdate(SpringLiquibase liquibase, String beanName, JdbcTemplate jdbcTemplate, String digest) {
+        long start = System.currentTimeMillis();
+        try {
+            liquibase.afterPropertiesSet();
+            jdbcTemplate.update("update LIQUIBASE_DIGEST set DIGEST = ?, UPDATED_AT = ? where ID = 1",
+                    digest, Timestamp.from(Instant.now()));
+            log.info("Liquibase update finished in {} ms", System.currentTimeMillis() - start);
+        } catch (LiquibaseException e) {
+            throw new BeanCreationException(beanName, "Liquibase update failed", e);
+        } finally {
+            try {
+                jdbcTemplate.update("update LIQUIBASE_DIGEST set RUNNING_NODE = null, RUNNING_SINCE = null " +
+                        "where ID = 1 and RUNNING_NODE = ?", node);
+            } catch (DataAccessException e) {
+                log.debug("Cannot release the Liquibase update claim: {}", e.toString());
+            }
+        }
+    }
+
+    private String computeDigest(SpringLiquibase liquibase) {
+        try {
+            // Resources are ordered by classpath-relative path, so the digest does not depend on installation paths
+            Map<String, Resource> resources = new TreeMap<>();
+            for (String pattern : CHANGELOG_PATTERNS) {
+                for (Resource resource : resourceResolver.getResources(pattern)) {
+                    resources.put(relativePath(resource), resource);
+                }
+            }
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            update(messageDigest, liquibase.getChangeLog());
+            update(messageDigest, liquibase.getContexts());
+            update(messageDigest, liquibase.getLabelFilter());
+            for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+                update(messageDigest, entry.getKey());
+                try (InputStream inputStream = entry.getValue().getInputStream()) {
+                    messageDigest.update(inputStream.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute changelog digest", e);
+        }
+    }
+
+    private static String relativePath(Resource resource) throws IOException {
+        String url = resource.getURL().toString();
+        for (String root : CHANGELOG_ROOTS) {
+            int idx = url.lastIndexOf(root);
+            if (idx >= 0) {
+                return url.substring(idx);
+            }
+        }
+        return url;
+    }
+
+    private static void update(MessageDigest messageDigest, String value) {
+        messageDigest.update(Objects.toString(value, "").getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0);
+    }
+}
@@ -0,0 +1,135 @@
+package com.company.sociallogin.security;
+
+import io.jmix.core.TimeSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Moves social accounts that have not logged in for {@code inactive-after} from {@code USER_} to
+ * {@code USER_ARCHIVE} and removes their role assignments.
+ * <p>
+ * Users are archived in batches of {@code batch-size}, each in its own short transaction. Only accounts
+ * without a password are considered, so users logging in with the login form are never archived.
+ * An archived user is restored by {@link #restore(String)} on the next social login.
+ */
+@Component
+public class InactiveUserArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(InactiveUserArchiver.class);
+
+    private static final String USER_COLUMNS = "ID, USERNAME, FIRST_NAME, LAST_NAME, EMAIL, ACTIVE, TIME_ZONE_ID";
+
+    private final boolean enabled;
+    private final Duration inactiveAfter;
+    private final int maxBatches;
+
+    private final JdbcTemplate batchSelectTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TimeSource timeSource;
+
+    public InactiveUserArchiver(@Value("${sociallogin.users.retention.enabled:false}") boolean enabled,
+                                @Value("${sociallogin.users.retention.inactive-after:365d}") Duration inactiveAfter,
+                                @Value("${sociallogin.users.retention.batch-size:500}") int batchSize,
+                                @Value("${sociallogin.users.retention.max-batches:1000}") int maxBatches,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                TimeSource timeSource) {
+        this.enabled = enabled;
+        this.inactiveAfter = inactiveAfter;
+        this.maxBatches = maxBatches;
+        this.batchSelectTemplate = new JdbcTemplate(dataSource);
+        this.batchSelectTemplate.setMaxRows(batchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The same clock as the LAST_LOGIN values written on login
+        this.timeSource = timeSource;
+    }
+
+    @Scheduled(cron = "${sociallogin.users.retention.cron:0 30 3 * * *}")
+    public void archiveInactiveUsers() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.from(timeSource.now().toInstant().minus(inactiveAfter));
+        int archived = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<String> usernames = batchSelectTemplate.queryForList(
+                    "select USERNAME from USER_ where PASSWORD is null and LAST_LOGIN < ?", String.class, cutoff);
+            if (usernames.isEmpty()) {
+                break;
+            }
+            archived += archiveBatch(usernames, cutoff);
+        }
+        log.info("Archived {} users inactive since {}", archived, cutoff);
+    }
+
+    private int archiveBatch(List<String> usernames, Timestamp cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", usernames)
+                .addValue("cutoff", cutoff)
+                .addValue("archivedAt", Timestamp.from(timeSource.now().toInstant()));
+        Integer count = transactionTemplate.execute(status -> {
+            // The condition is repeated in every statement, so a user who logged in after the batch
+            // was selected stays in USER_
+            jdbcTemplate.update("insert into USER_ARCHIVE (" + USER_COLUMNS + ", LAST_LOGIN, ARCHIVED_AT) " +
+                    "select " + USER_COLUMNS + ", LAST_LOGIN, :archivedAt from USER_ " +
+                    "where USERNAME in (:usernames) and PASSWORD is null and LAST_LOGIN < :cutoff", params);
+            jdbcTemplate.update("delete from SEC_ROLE_ASSIGNMENT where USERNAME in (" +
+                    "select u.USERNAME from USER_ u where u.USERNAME in (:usernames) and u.PASSWORD is null " +
+                    "and u.LAST_LOGIN < :cutoff)", params);
+            return jdbcTemplate.update("delete from USER_ " +
+                    "where USERNAME in (:usernames) and PASSWORD is null and LAST_LOGIN < :cutoff", params);
+        });
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Moves the archived user back to {@code USER_}. Concurrent restores of the same user are safe: only
+     * one of them moves the row, the others find the user already restored.
+     *
+     * @return {@code true} if the user was found in the archive or has been restored concurrently
+     */
+    public boolean restore(String username) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("username", username);
+        Boolean restored;
+        try {
+            restored = transactionTemplate.execute(status -> {
+                int count = jdbcTemplate.update("insert into USER_ (" + USER_COLUMNS + ", VERSION, LAST_LOGIN) " +
+                        "select " + USER_COLUMNS + ", 1, LAST_LOGIN from USER_ARCHIVE where USERNAME = :username " +
+                        "and not exists (select 1 from USER_ where USERNAME = :username)", params);
+                if (count == 0) {
+                    return false;
+                }
+                jdbcTemplate.update("delete from USER_ARCHIVE where USERNAME = :username", params);
+                return true;
+            });
+        } catch (DuplicateKeyException e) {
+            // A concurrent restore inserted the user after the existence check and has committed
+            log.debug("User '{}' has been restored concurrently", username);
+            return true;
+        }
+        if (Boolean.TRUE.equals(restored)) {
+            log.info("Restored archived user '{}'", username);
+            return true;
+        }
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from USER_ where USERNAME = :username",
+                params, Integer.class);
+        return existing != null && existing > 0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.company.sociallogin.security;
+
+import org.springframework.lang.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * Login processing step performed by the current thread. Connection pool events are attributed to it,
+ * see {@code PoolMonitor}.
+ */
+public enum LoginPhase {
+
+    /**
+     * Authentication with the login form.
+     */
+    FORM_LOGIN,
+    /**
+     * Loading or creating the user after a social login callback.
+     */
+    SOCIAL_USER_UPDATE,
+    /**
+     * Validation of a remember-me cookie.
+     */
+    REMEMBER_ME;
+
+    private static final ThreadLocal<LoginPhase> CURRENT = new ThreadLocal<>();
+
+    @Nullable
+    public static LoginPhase current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action with this phase set for the current thread.
+     */
+    public <T> T call(Supplier<T> action) {
+        LoginPhase previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.company.sociallogin.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles login attempts per username and per client address before any credentials are checked.
+ * Addresses have their own limits, set higher than the per-username ones, because users behind NAT or a
+ * proxy share one address. Behind a reverse proxy, {@code server.forward-headers-strategy} must be set so
+ * that the client address is taken from the forwarded headers.
+ * <p>
+ * Every key owns a token bucket expressed as a single "theoretical arrival time" (the generic cell
+ * rate algorithm), so an attempt for a known key is one CAS on an {@link AtomicLong} and allocates
+ * nothing. Bucket maps are bounded by {@code max-keys}: when a map is full, buckets that have been
+ * idle for {@code idle-timeout} are swept, at most once per quarter of the idle timeout, and keys that
+ * do not fit share a fixed array of striped overflow buckets.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int OVERFLOW_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final long idleTimeoutNanos;
+    private final long sweepIntervalNanos;
+    private final LongSupplier clock;
+
+    private final Buckets usernames;
+    private final Buckets addresses;
+
+    @Autowired
+    public LoginThrottle(@Value("${sociallogin.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${sociallogin.login-throttle.burst:10}") int burst,
+                         @Value("${sociallogin.login-throttle.refill-period:6s}") Duration refillPeriod,
+                         @Value("${sociallogin.login-throttle.address.burst:100}") int addressBurst,
+                         @Value("${sociallogin.login-throttle.address.refill-period:600ms}") Duration addressRefillPeriod,
+                         @Value("${sociallogin.login-throttle.idle-timeout:15m}") Duration idleTimeout,
+                         @Value("${sociallogin.login-throttle.max-keys:100000}") int maxKeys) {
+        this(enabled, burst, refillPeriod, addressBurst, addressRefillPeriod, idleTimeout, maxKeys, System::nanoTime);
+    }
+
+    LoginThrottle(boolean enabled, int burst, Duration refillPeriod, int addressBurst, Duration addressRefillPeriod,
+                  Duration idleTimeout, int maxKeys, LongSupplier clock) {
+        this.enabled = enabled;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.sweepIntervalNanos = idleTimeoutNanos / 4;
+        this.clock = clock;
+        this.usernames = new Buckets(burst, refillPeriod, maxKeys, clock.getAsLong());
+        this.addresses = new Buckets(addressBurst, addressRefillPeriod, maxKeys, clock.getAsLong());
+    }
+
+    /**
+     * Takes one token for the client address and one for the username.
+     *
+     * @param username username entered by the client, or {@code null} if it is not known yet
+     * @param address  remote address of the client, or {@code null} if it cannot be determined
+     * @return {@code false} if the attempt must be rejected without checking credentials
+     */
+    public boolean tryAcquire(@Nullable String username, @Nullable String address) {
+        if (!enabled) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        return (address == null || addresses.tryAcquire(address, now))
+                && (username == null || username.isEmpty() || usernames.tryAcquire(username, now));
+    }
+
+    private final class Buckets {
+
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final int maxKeys;
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLongArray overflow = new AtomicLongArray(OVERFLOW_STRIPES);
+        private final AtomicLong lastSweep;
+
+        Buckets(int burst, Duration refillPeriod, int maxKeys, long now) {
+            if (burst < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+                throw new IllegalArgumentException("Login throttle burst and refill period must be positive");
+            }
+            this.emissionIntervalNanos = refillPeriod.toNanos();
+            this.burstToleranceNanos = emissionIntervalNanos * burst;
+            this.maxKeys = maxKeys;
+            this.lastSweep = new AtomicLong(now - sweepIntervalNanos);
+            for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+                overflow.set(i, now);
+            }
+        }
+
+        boolean tryAcquire(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = register(key, now);
+            }
+            if (bucket == null) {
+                return tryAcquireOverflow(key, now);
+            }
+            while (true) {
+                long current = bucket.get();
+                long next = admit(current, now);
+                if (next == current) {
+                    return false;
+                }
+                if (bucket.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        private boolean tryAcquireOverflow(String key, long now) {
+            int h = key.hashCode();
+            int stripe = (h ^ (h >>> 16)) & (OVERFLOW_STRIPES - 1);
+            while (true) {
+                long current = overflow.get(stripe);
+                long next = admit(current, now);
+                if (next == current) {
+                    return false;
+                }
+                if (overflow.compareAndSet(stripe, current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        @Nullable
+        private AtomicLong register(String key, long now) {
+            if (buckets.size() >= maxKeys) {
+                sweep(now);
+                if (buckets.size() >= maxKeys) {
+                    return null;
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        // Sweeps idle buckets unless another thread did within the sweep interval. A sweep is O(max-keys),
+        // so between sweeps the keys that do not fit go straight to the overflow stripes
+        private void sweep(long now) {
+            long last = lastSweep.get();
+            if (now - last < sweepIntervalNanos || !lastSweep.compareAndSet(last, now)) {
+                return;
+            }
+            // A bucket whose arrival time has passed is full again, so dropping it loses no state
+            buckets.values().removeIf(bucket -> now - bucket.get() > idleTimeoutNanos);
+        }
+
+        /**
+         * Returns the next theoretical arrival time if the attempt fits into the bucket, otherwise {@code current}.
+         */
+        private long admit(long current, long now) {
+            long base = current - now < 0 ? now : current;
+            long next = base + emissionIntervalNanos;
+            return next - now > burstToleranceNanos ? current : next;
+        }
+    }
+}
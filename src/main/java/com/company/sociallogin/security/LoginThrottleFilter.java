@@ -0,0 +1,50 @@
+package com.company.sociallogin.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects OAuth2 login callbacks from client addresses that exceeded the {@link LoginThrottle} limit,
+ * before the authorization code is exchanged and the user is looked up in the database.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginThrottleFilter.class);
+
+    private final RequestMatcher callbackMatcher =
+            new AntPathRequestMatcher(OAuth2LoginAuthenticationFilter.DEFAULT_FILTER_PROCESSES_URI);
+
+    private final LoginThrottle loginThrottle;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !callbackMatcher.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!loginThrottle.tryAcquire(null, request.getRemoteAddr())) {
+            log.warn("OAuth2 login callback throttled for {}", request.getRemoteAddr());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
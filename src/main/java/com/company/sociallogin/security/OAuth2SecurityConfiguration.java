@@ -1,13 +1,18 @@
 package com.company.sociallogin.security;
 
 import com.company.sociallogin.entity.User;
+import io.jmix.core.EntityStates;
+import io.jmix.core.TimeSource;
 import io.jmix.core.UnconstrainedDataManager;
 import io.jmix.security.role.RoleGrantedAuthorityUtils;
 import io.jmix.securityflowui.security.FlowuiVaadinWebSecurity;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.Authentication;
@@ -17,6 +22,7 @@ import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.DefaultRedirectStrategy;
@@ -24,9 +30,12 @@ import org.springframework.security.web.DefaultRedirectStrategy;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 // tag::class[]
 @EnableWebSecurity
+@EnableConfigurationProperties(SocialProviderProperties.class)
 @Configuration
 public class OAuth2SecurityConfiguration extends FlowuiVaadinWebSecurity {
 
@@ -36,6 +45,22 @@ public class OAuth2SecurityConfiguration extends FlowuiVaadinWebSecurity {
     private UnconstrainedDataManager dataManager;
     // ...
     // end::class[]
+
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    @Autowired
+    private EntityStates entityStates;
+    @Autowired
+    private LoginThrottle loginThrottle;
+    @Autowired
+    private InactiveUserArchiver inactiveUserArchiver;
+    @Autowired
+    private TimeSource timeSource;
+    @Autowired
+    private SocialUserMappings socialUserMappings;
+    @Autowired
+    private PersistentRememberMeServices rememberMeServices;
+
     // tag::configure[]
     @Override
     protected void configure(HttpSecurity http) throws Exception {
@@ -49,6 +74,13 @@ public class OAuth2SecurityConfiguration extends FlowuiVaadinWebSecurity {
                                         .oidcUserService(oidcUserService()))
                         .successHandler(this::onAuthenticationSuccess)
         );
+        // Reject throttled callbacks before the authorization code is exchanged
+        http.addFilterBefore(new LoginThrottleFilter(loginThrottle), OAuth2LoginAuthenticationFilter.class);
+        // Keep remember-me tokens in the database instead of the default token store
+        http.rememberMe(rememberMe ->
+                rememberMe
+                        .rememberMeServices(rememberMeServices)
+                        .key(rememberMeServices.getKey()));
     }
     // end::configure[]
 
@@ -69,25 +101,14 @@ public class OAuth2SecurityConfiguration extends FlowuiVaadinWebSecurity {
             // Delegate to the default implementation to load an external user
             OAuth2User oAuth2User = delegate.loadUser(userRequest);
 
-            // Find or create a user with username corresponding to the GitHub ID
-            Integer githubId = oAuth2User.getAttribute("id");
-            User jmixUser = loadUserByUsername("github:" + githubId);
-
-            // Update the user with information from GitHub
-            jmixUser.setEmail(oAuth2User.getAttribute("email"));
-            String nameAttr = oAuth2User.getAttribute("name");
-            if (nameAttr != null) {
-                int idx = nameAttr.indexOf(" ");
-                if (idx > 0) {
-                    jmixUser.setFirstName(nameAttr.substring(0, idx));
-                    jmixUser.setLastName(nameAttr.substring(idx + 1));
-                } else {
-                    jmixUser.setLastName(nameAttr);
-                }
-            }
+            // Find or create a user with username corresponding to the GitHub ID,
+            // update it with information from GitHub and save it to the database
+            SocialUserMapping mapping = socialUserMappings.get(userRequest.getClientRegistration().getRegistrationId());
+            Map<String, Object> attributes = oAuth2User.getAttributes();
+            User savedJmixUser = updateUser(mapping.getUsername(attributes),
+                    jmixUser -> mapping.apply(jmixUser, attributes));
 
-            // Save the user to the database and assign roles
-            User savedJmixUser = dataManager.save(jmixUser);
+            // Assign roles
             savedJmixUser.setAuthorities(getDefaultGrantedAuthorities());
             return savedJmixUser;
         };
@@ -102,17 +123,14 @@ public class OAuth2SecurityConfiguration extends FlowuiVaadinWebSecurity {
             // Delegate to the default implementation to load an external user
             OidcUser oidcUser = delegate.loadUser(userRequest);
 
-            // Find or create a user with username corresponding to the Google ID
-            String googleId = oidcUser.getSubject();
-            User jmixUser = loadUserByUsername("google:" + googleId);
+            // Find or create a user with username corresponding to the Google ID,
+            // update it with information from Google and save it to the database
+            SocialUserMapping mapping = socialUserMappings.get(userRequest.getClientRegistration().getRegistrationId());
+            Map<String, Object> attributes = oidcUser.getAttributes();
+            User savedJmixUser = updateUser(mapping.getUsername(attributes),
+                    jmixUser -> mapping.apply(jmixUser, attributes));
 
-            // Update the user with information from Google
-            jmixUser.setEmail(oidcUser.getEmail());
-            jmixUser.setFirstName(oidcUser.getAttribute("given_name"));
-            jmixUser.setLastName(oidcUser.getAttribute("family_name"));
-
-            // Update the user to the database and assign roles
-            User savedJmixUser = dataManager.save(jmixUser);
+            // Assign roles
             savedJmixUser.setAuthorities(getDefaultGrantedAuthorities());
             return savedJmixUser;
         };
@@ -133,6 +151,31 @@ public class OAuth2SecurityConfiguration extends FlowuiVaadinWebSecurity {
     }
     // end::loadUserByUsername[]
 
+    // tag::updateUser[]
+    // Loads or creates the user, applies the changes and saves it. A user moved to the archive by
+    // InactiveUserArchiver is restored instead of created. If a concurrent bulk operation changed the row
+    // in the meantime, the save fails on the version check and is repeated on fresh data.
+    private User updateUser(String username, Consumer<User> changes) {
+        return LoginPhase.SOCIAL_USER_UPDATE.call(() -> {
+            for (int attempt = 1; ; attempt++) {
+                User jmixUser = loadUserByUsername(username);
+                if (entityStates.isNew(jmixUser) && inactiveUserArchiver.restore(username)) {
+                    jmixUser = loadUserByUsername(username);
+                }
+                changes.accept(jmixUser);
+                jmixUser.setLastLogin(timeSource.currentTimestamp());
+                try {
+                    return dataManager.save(jmixUser);
+                } catch (OptimisticLockException | OptimisticLockingFailureException e) {
+                    if (attempt >= MAX_SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        });
+    }
+    // end::updateUser[]
+
     // tag::getDefaultGrantedAuthorities[]
     // Builds granted authority list to assign default roles to the user
     private Collection<GrantedAuthority> getDefaultGrantedAuthorities() {
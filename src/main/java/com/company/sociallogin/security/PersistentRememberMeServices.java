@@ -0,0 +1,267 @@
+package com.company.sociallogin.security;
+
+import io.jmix.core.security.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.AbstractRememberMeServices;
+import org.springframework.security.web.authentication.rememberme.CookieTheftException;
+import org.springframework.security.web.authentication.rememberme.InvalidCookieException;
+import org.springframework.security.web.authentication.rememberme.RememberMeAuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Remember-me services keeping tokens in {@link RememberMeTokenStore}.
+ * <p>
+ * Follows the persistent token approach: the cookie holds a series and a token value, and the token value
+ * is replaced on every cookie login. Using a series with an outdated token value is treated as cookie theft
+ * and removes all tokens of the user.
+ * <p>
+ * A page load sends several requests with the same cookie at once. The first one validates the cookie,
+ * rotates the token and loads the user; the others wait for and reuse its result, including the new cookie,
+ * for {@code validation-cache.ttl}. When the cache is full, the oldest validation is evicted. Requests that
+ * miss the cache, for example because they are served by another instance, present the token value replaced
+ * by the last rotation: within {@code rotation-grace} it is accepted without rotating again and without
+ * setting a cookie, since the response to the rotating request carries the new one.
+ */
+@Primary
+@Component
+public class PersistentRememberMeServices extends AbstractRememberMeServices {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentRememberMeServices.class);
+
+    private static final int RANDOM_BYTES = 16;
+
+    private final RememberMeTokenStore tokenStore;
+    private final Duration tokenValidity;
+    private final long validationCacheTtlNanos;
+    private final int validationCacheSize;
+    private final Duration rotationGrace;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Validation> validations = new ConcurrentHashMap<>();
+
+    public PersistentRememberMeServices(@Value("${sociallogin.remember-me.key:}") String key,
+                                        @Value("${sociallogin.remember-me.token-validity:14d}") Duration tokenValidity,
+                                        @Value("${sociallogin.remember-me.validation-cache.ttl:10s}") Duration validationCacheTtl,
+                                        @Value("${sociallogin.remember-me.validation-cache.max-size:1000}") int validationCacheSize,
+                                        @Value("${sociallogin.remember-me.rotation-grace:10s}") Duration rotationGrace,
+                                        UserRepository userRepository,
+                                        RememberMeTokenStore tokenStore) {
+        this(key, tokenValidity, validationCacheTtl, validationCacheSize, rotationGrace,
+                (UserDetailsService) userRepository, tokenStore);
+    }
+
+    PersistentRememberMeServices(String key,
+                                 Duration tokenValidity,
+                                 Duration validationCacheTtl,
+                                 int validationCacheSize,
+                                 Duration rotationGrace,
+                                 UserDetailsService userDetailsService,
+                                 RememberMeTokenStore tokenStore) {
+        // The key only protects authentication tokens within this application instance
+        super(key.isEmpty() ? UUID.randomUUID().toString() : key, userDetailsService);
+        this.tokenStore = tokenStore;
+        this.tokenValidity = tokenValidity;
+        this.validationCacheTtlNanos = validationCacheTtl.toNanos();
+        this.validationCacheSize = validationCacheSize;
+        this.rotationGrace = rotationGrace;
+        setTokenValiditySeconds((int) tokenValidity.toSeconds());
+    }
+
+    @Override
+    protected void onLoginSuccess(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  Authentication successfulAuthentication) {
+        String series = generateValue();
+        String token = generateValue();
+        Instant now = Instant.now();
+        try {
+            tokenStore.create(successfulAuthentication.getName(), series, token, now, now.plus(tokenValidity));
+            setCookie(new String[]{series, token}, getTokenValiditySeconds(), request, response);
+        } catch (DataAccessException e) {
+            log.error("Failed to save remember-me token for user '{}'", successfulAuthentication.getName(), e);
+        }
+    }
+
+    @Override
+    protected UserDetails processAutoLoginCookie(String[] cookieTokens,
+                                                 HttpServletRequest request,
+                                                 HttpServletResponse response) {
+        if (cookieTokens.length != 2) {
+            throw new InvalidCookieException("Remember-me cookie must contain a series and a token value");
+        }
+        Validation validation = getValidation(cookieTokens[0] + ":" + cookieTokens[1]);
+        if (validation.started.compareAndSet(false, true)) {
+            try {
+                validation.result.complete(
+                        LoginPhase.REMEMBER_ME.call(() -> validate(cookieTokens[0], cookieTokens[1])));
+            } catch (Throwable e) {
+                // Any failure must complete the validation, otherwise waiting requests would block forever
+                validation.result.completeExceptionally(e);
+            }
+        }
+
+        ValidationResult result;
+        try {
+            result = validation.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RememberMeAuthenticationException("Remember-me cookie validation failed", cause);
+        }
+        if (result.cookieTokens() != null) {
+            setCookie(result.cookieTokens(), getTokenValiditySeconds(), request, response);
+        }
+        return result.user();
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        String cookieValue = extractRememberMeCookie(request);
+        super.logout(request, response, authentication);
+        if (cookieValue == null || cookieValue.isEmpty()) {
+            return;
+        }
+        try {
+            String[] cookieTokens = decodeCookie(cookieValue);
+            if (cookieTokens.length == 2) {
+                tokenStore.removeSeries(cookieTokens[0]);
+                String prefix = cookieTokens[0] + ":";
+                validations.keySet().removeIf(cookieKey -> cookieKey.startsWith(prefix));
+            }
+        } catch (InvalidCookieException e) {
+            log.debug("Invalid remember-me cookie on logout: {}", e.getMessage());
+        }
+    }
+
+    // Returns the validation of the cookie started within the TTL, or a new one
+    private Validation getValidation(String cookieKey) {
+        long now = System.nanoTime();
+        if (validations.size() >= validationCacheSize && !validations.containsKey(cookieKey)) {
+            validations.values().removeIf(validation -> validation.isExpired(now, validationCacheTtlNanos));
+            while (validations.size() >= validationCacheSize && evictOldestValidation()) {
+                // Evicted concurrently by other requests as well, check the size again
+            }
+        }
+        return validations.compute(cookieKey, (key, existing) ->
+                existing != null && !existing.isExpired(now, validationCacheTtlNanos) ? existing : new Validation(now));
+    }
+
+    // Evicts the validation started first; requests already waiting for it keep their reference
+    private boolean evictOldestValidation() {
+        Map.Entry<String, Validation> oldest = null;
+        for (Map.Entry<String, Validation> entry : validations.entrySet()) {
+            if (oldest == null || entry.getValue().startedAt - oldest.getValue().startedAt < 0) {
+                oldest = entry;
+            }
+        }
+        if (oldest == null) {
+            return false;
+        }
+        validations.remove(oldest.getKey(), oldest.getValue());
+        return true;
+    }
+
+    private ValidationResult validate(String series, String token) {
+        RememberMeTokenStore.StoredToken storedToken = tokenStore.find(series)
+                .orElseThrow(() -> new RememberMeAuthenticationException("No remember-me token found for the series"));
+        String tokenHash = RememberMeTokenStore.hash(token);
+        Instant now = Instant.now();
+
+        if (!hashEquals(storedToken.tokenHash(), tokenHash)) {
+            if (isWithinRotationGrace(storedToken, tokenHash, now)) {
+                return new ValidationResult(loadUser(storedToken), null);
+            }
+            // The series was already used with another token value, so the cookie has been copied
+            tokenStore.removeUserTokens(storedToken.username());
+            throw new CookieTheftException("Outdated remember-me token presented for user '"
+                    + storedToken.username() + "', all remember-me tokens of the user have been removed");
+        }
+
+        if (!storedToken.expiresAt().isAfter(now)) {
+            throw new RememberMeAuthenticationException("Remember-me token has expired");
+        }
+
+        String newToken = generateValue();
+        if (!tokenStore.rotate(series, token, newToken, now, now.plus(tokenValidity))) {
+            // Rotated at the same moment by a request served by another instance,
+            // whose response carries the new cookie
+            RememberMeTokenStore.StoredToken rotatedToken = tokenStore.find(series)
+                    .filter(current -> isWithinRotationGrace(current, tokenHash, Instant.now()))
+                    .orElseThrow(() -> new RememberMeAuthenticationException(
+                            "Remember-me token has been rotated or removed concurrently"));
+            return new ValidationResult(loadUser(rotatedToken), null);
+        }
+
+        return new ValidationResult(loadUser(storedToken), new String[]{series, newToken});
+    }
+
+    // Whether the token value was replaced by a rotation less than rotation-grace ago
+    private boolean isWithinRotationGrace(RememberMeTokenStore.StoredToken storedToken, String tokenHash, Instant now) {
+        return storedToken.previousTokenHash() != null
+                && storedToken.rotatedAt() != null
+                && hashEquals(storedToken.previousTokenHash(), tokenHash)
+                && storedToken.rotatedAt().plus(rotationGrace).isAfter(now)
+                && storedToken.expiresAt().isAfter(now);
+    }
+
+    private UserDetails loadUser(RememberMeTokenStore.StoredToken storedToken) {
+        return getUserDetailsService().loadUserByUsername(storedToken.username());
+    }
+
+    private static boolean hashEquals(String hash1, String hash2) {
+        return MessageDigest.isEqual(hash1.getBytes(StandardCharsets.US_ASCII), hash2.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String generateValue() {
+        byte[] bytes = new byte[RANDOM_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static class Validation {
+
+        private final long startedAt;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<ValidationResult> result = new CompletableFuture<>();
+
+        private Validation(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return result.isDone() && now - startedAt >= ttlNanos;
+        }
+    }
+
+    // Cookie tokens are null when the request is accepted without rotating the token
+    private record ValidationResult(UserDetails user, @Nullable String[] cookieTokens) {
+    }
+}
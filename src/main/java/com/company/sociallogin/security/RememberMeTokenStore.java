@@ -0,0 +1,164 @@
+package com.company.sociallogin.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent remember-me tokens in the {@code REMEMBER_ME_TOKEN} table of the main data store.
+ * <p>
+ * A token is looked up by the SHA-256 hash of its series, which is the primary key, and only the hash of
+ * the token value is stored, so the table content cannot be used as cookies. {@link #rotate} replaces the
+ * token value with a single conditional update, so of two requests rotating the same token only one
+ * succeeds. The replaced token hash is kept with the rotation time, so requests that were sent with the
+ * previous cookie shortly before the rotation can still be recognized. Expired tokens are deleted by
+ * {@link #deleteExpiredTokens()} in batches of {@code batch-size}.
+ */
+@Component
+public class RememberMeTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RememberMeTokenStore.class);
+
+    private final int maxBatches;
+
+    private final JdbcTemplate batchSelectTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public RememberMeTokenStore(@Value("${sociallogin.remember-me.cleanup.batch-size:500}") int batchSize,
+                                @Value("${sociallogin.remember-me.cleanup.max-batches:1000}") int maxBatches,
+                                DataSource dataSource) {
+        this.maxBatches = maxBatches;
+        this.batchSelectTemplate = new JdbcTemplate(dataSource);
+        this.batchSelectTemplate.setMaxRows(batchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public void create(String username, String series, String token, Instant now, Instant expiresAt) {
+        jdbcTemplate.update("insert into REMEMBER_ME_TOKEN (SERIES_HASH, USERNAME, TOKEN_HASH, LAST_USED, EXPIRES_AT) " +
+                        "values (:series, :username, :token, :now, :expiresAt)",
+                new MapSqlParameterSource()
+                        .addValue("series", hash(series))
+                        .addValue("username", username)
+                        .addValue("token", hash(token))
+                        .addValue("now", Timestamp.from(now))
+                        .addValue("expiresAt", Timestamp.from(expiresAt)));
+    }
+
+    public Optional<StoredToken> find(String series) {
+        return jdbcTemplate.query("select USERNAME, TOKEN_HASH, EXPIRES_AT, PREVIOUS_TOKEN_HASH, ROTATED_AT " +
+                                "from REMEMBER_ME_TOKEN where SERIES_HASH = :series",
+                        new MapSqlParameterSource("series", hash(series)),
+                        (rs, rowNum) -> {
+                            Timestamp rotatedAt = rs.getTimestamp(5);
+                            return new StoredToken(rs.getString(1), rs.getString(2), rs.getTimestamp(3).toInstant(),
+                                    rs.getString(4), rotatedAt != null ? rotatedAt.toInstant() : null);
+                        })
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Replaces the token value of the series if it is still {@code oldToken} and not expired.
+     *
+     * @return {@code true} if the token was replaced, {@code false} if it was rotated or removed concurrently
+     */
+    public boolean rotate(String series, String oldToken, String newToken, Instant now, Instant expiresAt) {
+        return jdbcTemplate.update("update REMEMBER_ME_TOKEN " +
+                        "set PREVIOUS_TOKEN_HASH = TOKEN_HASH, ROTATED_AT = :now, " +
+                        "TOKEN_HASH = :newToken, LAST_USED = :now, EXPIRES_AT = :expiresAt " +
+                        "where SERIES_HASH = :series and TOKEN_HASH = :oldToken and EXPIRES_AT > :now",
+                new MapSqlParameterSource()
+                        .addValue("series", hash(series))
+                        .addValue("oldToken", hash(oldToken))
+                        .addValue("newToken", hash(newToken))
+                        .addValue("now", Timestamp.from(now))
+                        .addValue("expiresAt", Timestamp.from(expiresAt))) == 1;
+    }
+
+    public void removeSeries(String series) {
+        jdbcTemplate.update("delete from REMEMBER_ME_TOKEN where SERIES_HASH = :series",
+                new MapSqlParameterSource("series", hash(series)));
+    }
+
+    public void removeUserTokens(String username) {
+        jdbcTemplate.update("delete from REMEMBER_ME_TOKEN where USERNAME = :username",
+                new MapSqlParameterSource("username", username));
+    }
+
+    /**
+     * Removes the tokens of the users, joining the current transaction if there is one.
+     */
+    public void removeUserTokens(Collection<String> usernames) {
+        if (!usernames.isEmpty()) {
+            jdbcTemplate.update("delete from REMEMBER_ME_TOKEN where USERNAME in (:usernames)",
+                    new MapSqlParameterSource("usernames", usernames));
+        }
+    }
+
+    @Scheduled(cron = "${sociallogin.remember-me.cleanup.cron:0 0 * * * *}")
+    public void deleteExpiredTokens() {
+        int deleted = deleteExpiredTokens(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired remember-me tokens", deleted);
+        }
+    }
+
+    int deleteExpiredTokens(Instant now) {
+        Timestamp cutoff = Timestamp.from(now);
+        int deleted = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<String> seriesHashes = batchSelectTemplate.queryForList(
+                    "select SERIES_HASH from REMEMBER_ME_TOKEN where EXPIRES_AT <= ?", String.class, cutoff);
+            if (seriesHashes.isEmpty()) {
+                break;
+            }
+            // A token rotated after the batch was selected has a new expiration time and is kept
+            deleted += jdbcTemplate.update("delete from REMEMBER_ME_TOKEN " +
+                            "where SERIES_HASH in (:seriesHashes) and EXPIRES_AT <= :cutoff",
+                    new MapSqlParameterSource()
+                            .addValue("seriesHashes", seriesHashes)
+                            .addValue("cutoff", cutoff));
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns the hex-encoded SHA-256 hash of a cookie value as stored in the table.
+     */
+    public static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param previousTokenHash hash of the token value replaced by the last rotation, {@code null} before the first one
+     * @param rotatedAt         time of the last rotation, {@code null} before the first one
+     */
+    public record StoredToken(String username,
+                              String tokenHash,
+                              Instant expiresAt,
+                              @Nullable String previousTokenHash,
+                              @Nullable Instant rotatedAt) {
+    }
+}
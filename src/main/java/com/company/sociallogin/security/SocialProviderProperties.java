@@ -0,0 +1,116 @@
+package com.company.sociallogin.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Attribute mapping of social login providers, keyed by OAuth2 client registration id:
+ * <pre>
+ * sociallogin.providers.github.subject-claim = id
+ * sociallogin.providers.github.username-prefix = github:
+ * sociallogin.providers.github.name-claim = name
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "sociallogin")
+public class SocialProviderProperties {
+
+    private final Map<String, Provider> providers = new LinkedHashMap<>();
+
+    public Map<String, Provider> getProviders() {
+        return providers;
+    }
+
+    public static class Provider {
+
+        /**
+         * Claim with the user identifier at the provider.
+         */
+        private String subjectClaim;
+        /**
+         * Prepended to the identifier to build the Jmix username.
+         */
+        private String usernamePrefix;
+        private String emailClaim;
+        private String firstNameClaim;
+        private String lastNameClaim;
+        /**
+         * Claim with the full name, split into first and last name according to {@link #nameSplit}.
+         * Used for the names not provided by {@link #firstNameClaim} and {@link #lastNameClaim}.
+         */
+        private String nameClaim;
+        private NameSplit nameSplit = NameSplit.FIRST_SPACE;
+
+        public String getSubjectClaim() {
+            return subjectClaim;
+        }
+
+        public void setSubjectClaim(String subjectClaim) {
+            this.subjectClaim = subjectClaim;
+        }
+
+        public String getUsernamePrefix() {
+            return usernamePrefix;
+        }
+
+        public void setUsernamePrefix(String usernamePrefix) {
+            this.usernamePrefix = usernamePrefix;
+        }
+
+        public String getEmailClaim() {
+            return emailClaim;
+        }
+
+        public void setEmailClaim(String emailClaim) {
+            this.emailClaim = emailClaim;
+        }
+
+        public String getFirstNameClaim() {
+            return firstNameClaim;
+        }
+
+        public void setFirstNameClaim(String firstNameClaim) {
+            this.firstNameClaim = firstNameClaim;
+        }
+
+        public String getLastNameClaim() {
+            return lastNameClaim;
+        }
+
+        public void setLastNameClaim(String lastNameClaim) {
+            this.lastNameClaim = lastNameClaim;
+        }
+
+        public String getNameClaim() {
+            return nameClaim;
+        }
+
+        public void setNameClaim(String nameClaim) {
+            this.nameClaim = nameClaim;
+        }
+
+        public NameSplit getNameSplit() {
+            return nameSplit;
+        }
+
+        public void setNameSplit(NameSplit nameSplit) {
+            this.nameSplit = nameSplit;
+        }
+    }
+
+    public enum NameSplit {
+        /**
+         * The first word is the first name, the rest is the last name.
+         */
+        FIRST_SPACE,
+        /**
+         * The last word is the last name, the rest is the first name.
+         */
+        LAST_SPACE,
+        /**
+         * The whole name is the last name.
+         */
+        NONE
+    }
+}
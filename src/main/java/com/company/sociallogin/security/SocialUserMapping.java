@@ -0,0 +1,126 @@
+package com.company.sociallogin.security;
+
+import com.company.sociallogin.entity.User;
+import com.company.sociallogin.security.SocialProviderProperties.NameSplit;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Attribute mapping of one social login provider compiled from {@link SocialProviderProperties.Provider}.
+ * <p>
+ * Claim names and the name split rule are resolved once, so mapping a login is a few map lookups.
+ * Claims of unexpected types are ignored, while a missing or malformed subject fails the login.
+ */
+public class SocialUserMapping {
+
+    private final String registrationId;
+    private final String subjectClaim;
+    private final String usernamePrefix;
+    private final List<BiConsumer<User, Map<String, Object>>> setters;
+
+    public SocialUserMapping(String registrationId, SocialProviderProperties.Provider provider) {
+        if (provider.getSubjectClaim() == null || provider.getSubjectClaim().isBlank()) {
+            throw new IllegalStateException("Subject claim is not configured for social login provider '"
+                    + registrationId + "'");
+        }
+        this.registrationId = registrationId;
+        this.subjectClaim = provider.getSubjectClaim();
+        this.usernamePrefix = provider.getUsernamePrefix() != null ? provider.getUsernamePrefix() : registrationId + ":";
+
+        List<BiConsumer<User, Map<String, Object>>> compiled = new ArrayList<>();
+        String emailClaim = provider.getEmailClaim();
+        if (emailClaim != null) {
+            compiled.add((user, attributes) -> user.setEmail(stringClaim(attributes, emailClaim)));
+        }
+        String nameClaim = provider.getNameClaim();
+        if (nameClaim != null) {
+            compiled.add(nameSplitter(nameClaim, provider.getNameSplit()));
+        }
+        // Explicit name claims are applied after the split name, so they take precedence
+        String firstNameClaim = provider.getFirstNameClaim();
+        if (firstNameClaim != null) {
+            compiled.add((user, attributes) -> user.setFirstName(stringClaim(attributes, firstNameClaim)));
+        }
+        String lastNameClaim = provider.getLastNameClaim();
+        if (lastNameClaim != null) {
+            compiled.add((user, attributes) -> user.setLastName(stringClaim(attributes, lastNameClaim)));
+        }
+        this.setters = List.copyOf(compiled);
+    }
+
+    public String getRegistrationId() {
+        return registrationId;
+    }
+
+    /**
+     * Returns the Jmix username corresponding to the subject claim.
+     *
+     * @throws OAuth2AuthenticationException if the subject claim is missing or malformed
+     */
+    public String getUsername(Map<String, Object> attributes) {
+        Object subject = attributes.get(subjectClaim);
+        if (subject instanceof String value && !value.isBlank()
+                || subject instanceof Integer
+                || subject instanceof Long
+                || subject instanceof BigInteger) {
+            return usernamePrefix + subject;
+        }
+        throw new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN,
+                "Missing or malformed '" + subjectClaim + "' claim from provider '" + registrationId + "'", null));
+    }
+
+    /**
+     * Copies mapped claims to the user.
+     */
+    public void apply(User user, Map<String, Object> attributes) {
+        for (BiConsumer<User, Map<String, Object>> setter : setters) {
+            setter.accept(user, attributes);
+        }
+    }
+
+    private static BiConsumer<User, Map<String, Object>> nameSplitter(String nameClaim, NameSplit nameSplit) {
+        return switch (nameSplit) {
+            case FIRST_SPACE -> (user, attributes) -> {
+                String name = stringClaim(attributes, nameClaim);
+                if (name != null) {
+                    int idx = name.indexOf(' ');
+                    setNames(user, name, idx);
+                }
+            };
+            case LAST_SPACE -> (user, attributes) -> {
+                String name = stringClaim(attributes, nameClaim);
+                if (name != null) {
+                    int idx = name.lastIndexOf(' ');
+                    setNames(user, name, idx);
+                }
+            };
+            case NONE -> (user, attributes) -> {
+                String name = stringClaim(attributes, nameClaim);
+                if (name != null) {
+                    user.setLastName(name);
+                }
+            };
+        };
+    }
+
+    private static void setNames(User user, String name, int idx) {
+        if (idx > 0 && idx < name.length() - 1) {
+            user.setFirstName(name.substring(0, idx));
+            user.setLastName(name.substring(idx + 1));
+        } else {
+            user.setLastName(name);
+        }
+    }
+
+    private static String stringClaim(Map<String, Object> attributes, String claim) {
+        Object value = attributes.get(claim);
+        return value instanceof String string && !string.isBlank() ? string.strip() : null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.sociallogin.security;
+
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attribute mappings of social login providers configured by {@link SocialProviderProperties}, compiled at startup.
+ * <p>
+ * Startup fails if a client registration has no mapping, as long as the {@link ClientRegistrationRepository}
+ * can list its registrations, which the default in-memory repository does.
+ */
+@Component
+public class SocialUserMappings {
+
+    private final Map<String, SocialUserMapping> mappings;
+
+    public SocialUserMappings(SocialProviderProperties properties,
+                              ClientRegistrationRepository clientRegistrationRepository) {
+        Map<String, SocialUserMapping> compiled = new LinkedHashMap<>();
+        properties.getProviders().forEach((registrationId, provider) ->
+                compiled.put(registrationId, new SocialUserMapping(registrationId, provider)));
+        this.mappings = Map.copyOf(compiled);
+
+        if (clientRegistrationRepository instanceof Iterable<?> registrations) {
+            List<String> unmapped = new ArrayList<>();
+            for (Object registration : registrations) {
+                String registrationId = ((ClientRegistration) registration).getRegistrationId();
+                if (!mappings.containsKey(registrationId)) {
+                    unmapped.add(registrationId);
+                }
+            }
+            if (!unmapped.isEmpty()) {
+                throw new IllegalStateException("No attribute mapping configured for OAuth2 client registrations "
+                        + unmapped + ", see sociallogin.providers.<registration-id>.*");
+            }
+        }
+    }
+
+    /**
+     * Returns the mapping for the given OAuth2 client registration.
+     *
+     * @throws OAuth2AuthenticationException if no mapping is configured for the registration
+     */
+    public SocialUserMapping get(String registrationId) {
+        SocialUserMapping mapping = mappings.get(registrationId);
+        if (mapping == null) {
+            throw new OAuth2AuthenticationException(new OAuth2Error(OAuth2ErrorCodes.SERVER_ERROR,
+                    "No attribute mapping configured for provider '" + registrationId + "'", null));
+        }
+        return mapping;
+    }
+
+    public Collection<SocialUserMapping> getAll() {
+        return mappings.values();
+    }
+}
@@ -0,0 +1,13 @@
+package com.company.sociallogin.security;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by {@link UserBulkOperations} within the transaction of a chunk that updated or removed users
+ * with bulk statements, which bypass {@code EntityChangedEvent}.
+ *
+ * @param userIds ids of the users of the chunk, including the ones left unchanged
+ */
+public record UserBulkChangeEvent(List<UUID> userIds) {
+}
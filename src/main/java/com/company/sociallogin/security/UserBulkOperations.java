@@ -0,0 +1,293 @@
+package com.company.sociallogin.security;
+
+import com.company.sociallogin.entity.User;
+import io.jmix.core.AccessManager;
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlans;
+import io.jmix.core.LoadContext;
+import io.jmix.core.Metadata;
+import io.jmix.core.Sort;
+import io.jmix.core.accesscontext.CrudEntityContext;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import io.jmix.core.security.AccessDeniedException;
+import io.jmix.security.role.assignment.RoleAssignmentRoleType;
+import io.jmix.securitydata.entity.RoleAssignmentEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk changes of users executed as JPQL statements over chunks of ids, one short transaction per chunk.
+ * <p>
+ * Updates increment {@code User.version}, so a concurrent social login holding a stale instance fails
+ * its optimistic lock check and reloads the user instead of overwriting the bulk change. Changes of
+ * {@code User} rows are announced with a {@link UserBulkChangeEvent} per chunk.
+ * The user performing the operation is never deactivated or removed. Removal also deletes the role
+ * assignments, user substitutions and remember-me tokens of the users in the same transaction.
+ * <p>
+ * The statements bypass the secured {@code DataManager}, so every method checks the entity operation
+ * permissions of the current user required by the {@link Operation} first. Users are selected either by ids
+ * or by a query with a condition, whose matching ids are read chunk by chunk with the secured
+ * {@code DataManager} in id order.
+ */
+@Component
+public class UserBulkOperations {
+
+    private final int chunkSize;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private Metadata metadata;
+    @Autowired
+    private AccessManager accessManager;
+    @Autowired
+    private DataManager dataManager;
+    @Autowired
+    private FetchPlans fetchPlans;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private RememberMeTokenStore rememberMeTokenStore;
+
+    public UserBulkOperations(@Value("${sociallogin.users.bulk.chunk-size:500}") int chunkSize,
+                              PlatformTransactionManager transactionManager) {
+        this.chunkSize = chunkSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Returns whether the current user has the entity operation permissions required by the operation.
+     */
+    public boolean isPermitted(Operation operation) {
+        return switch (operation) {
+            case SET_ACTIVE -> getCrudContext("User").isUpdatePermitted();
+            case ASSIGN_ROLE -> getCrudContext("sec_RoleAssignmentEntity").isCreatePermitted();
+            case REVOKE_ROLE -> getCrudContext("sec_RoleAssignmentEntity").isDeletePermitted();
+            case REMOVE -> getCrudContext("User").isDeletePermitted()
+                    && getCrudContext("sec_RoleAssignmentEntity").isDeletePermitted()
+                    && getCrudContext("sec_UserSubstitutionEntity").isDeletePermitted();
+        };
+    }
+
+    /**
+     * Returns the number of users matching the query and condition of a users loader.
+     */
+    public long countMatching(String query, @Nullable Condition condition, Map<String, Object> parameters) {
+        return dataManager.getCount(createLoadContext(query, condition, parameters));
+    }
+
+    /**
+     * Returns chunks of ids of users matching the query and condition of a users loader. Each chunk is
+     * loaded when requested, after the previous one has been processed, and continues after its last id,
+     * so users changed or removed by previous chunks are neither skipped nor processed twice.
+     */
+    public Iterator<List<UUID>> chunkMatching(String query, @Nullable Condition condition, Map<String, Object> parameters) {
+        Condition conditionCopy = condition != null ? condition.copy() : null;
+        Map<String, Object> parametersCopy = new HashMap<>(parameters);
+        return new Iterator<>() {
+
+            private List<UUID> nextChunk;
+            private UUID lastId;
+
+            @Override
+            public boolean hasNext() {
+                if (nextChunk == null) {
+                    nextChunk = loadIdsAfter(query, conditionCopy, parametersCopy, lastId);
+                }
+                return !nextChunk.isEmpty();
+            }
+
+            @Override
+            public List<UUID> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<UUID> chunk = nextChunk;
+                lastId = chunk.get(chunk.size() - 1);
+                nextChunk = null;
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * Splits ids into chunks processed by a single call of the other methods.
+     */
+    public List<List<UUID>> chunk(Collection<UUID> ids) {
+        List<UUID> all = new ArrayList<>(ids);
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += chunkSize) {
+            chunks.add(all.subList(from, Math.min(from + chunkSize, all.size())));
+        }
+        return chunks;
+    }
+
+    public int setActive(List<UUID> ids, boolean active, String currentUsername) {
+        checkPermitted(Operation.SET_ACTIVE);
+        return inTransaction(() -> {
+            int count = entityManager.createQuery(
+                            "update User e set e.active = :active, e.version = e.version + 1 " +
+                                    "where e.id in :ids and e.username <> :currentUsername")
+                    .setParameter("active", active)
+                    .setParameter("ids", ids)
+                    .setParameter("currentUsername", currentUsername)
+                    .executeUpdate();
+            eventPublisher.publishEvent(new UserBulkChangeEvent(ids));
+            return count;
+        });
+    }
+
+    public int assignResourceRole(List<UUID> ids, String roleCode) {
+        checkPermitted(Operation.ASSIGN_ROLE);
+        return inTransaction(() -> {
+            List<String> usernames = loadUsernames(ids);
+            if (usernames.isEmpty()) {
+                return 0;
+            }
+            Set<String> assigned = new HashSet<>(entityManager.createQuery(
+                            "select e.username from sec_RoleAssignmentEntity e " +
+                                    "where e.username in :usernames and e.roleCode = :roleCode and e.roleType = :roleType",
+                            String.class)
+                    .setParameter("usernames", usernames)
+                    .setParameter("roleCode", roleCode)
+                    .setParameter("roleType", RoleAssignmentRoleType.RESOURCE)
+                    .getResultList());
+            int count = 0;
+            for (String username : usernames) {
+                if (!assigned.contains(username)) {
+                    RoleAssignmentEntity roleAssignment = metadata.create(RoleAssignmentEntity.class);
+                    roleAssignment.setUsername(username);
+                    roleAssignment.setRoleCode(roleCode);
+                    roleAssignment.setRoleType(RoleAssignmentRoleType.RESOURCE);
+                    entityManager.persist(roleAssignment);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    public int revokeResourceRole(List<UUID> ids, String roleCode) {
+        checkPermitted(Operation.REVOKE_ROLE);
+        return inTransaction(() -> {
+            List<String> usernames = loadUsernames(ids);
+            if (usernames.isEmpty()) {
+                return 0;
+            }
+            return entityManager.createQuery(
+                            "delete from sec_RoleAssignmentEntity e " +
+                                    "where e.username in :usernames and e.roleCode = :roleCode and e.roleType = :roleType")
+                    .setParameter("usernames", usernames)
+                    .setParameter("roleCode", roleCode)
+                    .setParameter("roleType", RoleAssignmentRoleType.RESOURCE)
+                    .executeUpdate();
+        });
+    }
+
+    public int remove(List<UUID> ids, String currentUsername) {
+        checkPermitted(Operation.REMOVE);
+        return inTransaction(() -> {
+            List<String> usernames = loadUsernames(ids);
+            usernames.remove(currentUsername);
+            if (usernames.isEmpty()) {
+                return 0;
+            }
+            // Rows referring to the users by username, which would outlive them otherwise
+            entityManager.createQuery("delete from sec_RoleAssignmentEntity e where e.username in :usernames")
+                    .setParameter("usernames", usernames)
+                    .executeUpdate();
+            entityManager.createQuery("delete from sec_UserSubstitutionEntity e " +
+                            "where e.username in :usernames or e.substitutedUsername in :usernames")
+                    .setParameter("usernames", usernames)
+                    .executeUpdate();
+            rememberMeTokenStore.removeUserTokens(usernames);
+            int count = entityManager.createQuery("delete from User e where e.username in :usernames")
+                    .setParameter("usernames", usernames)
+                    .executeUpdate();
+            eventPublisher.publishEvent(new UserBulkChangeEvent(ids));
+            return count;
+        });
+    }
+
+    private void checkPermitted(Operation operation) {
+        if (!isPermitted(operation)) {
+            throw new AccessDeniedException("entity", "User", "bulk " + operation.name());
+        }
+    }
+
+    private CrudEntityContext getCrudContext(String entityName) {
+        CrudEntityContext context = new CrudEntityContext(metadata.getClass(entityName));
+        accessManager.applyRegisteredConstraints(context);
+        return context;
+    }
+
+    private LoadContext<User> createLoadContext(String query, @Nullable Condition condition, Map<String, Object> parameters) {
+        LoadContext<User> context = new LoadContext<>(metadata.getClass(User.class));
+        context.setQuery(new LoadContext.Query(query)
+                .setCondition(condition)
+                .setParameters(parameters));
+        return context;
+    }
+
+    private List<UUID> loadIdsAfter(String query, @Nullable Condition condition, Map<String, Object> parameters,
+                                    @Nullable UUID lastId) {
+        Condition chunkCondition = condition;
+        if (lastId != null) {
+            PropertyCondition afterLastId = PropertyCondition.greater("id", lastId);
+            chunkCondition = condition != null ? LogicalCondition.and(condition, afterLastId) : afterLastId;
+        }
+        LoadContext<User> context = createLoadContext(query, chunkCondition, parameters);
+        context.getQuery()
+                .setSort(Sort.by("id"))
+                .setMaxResults(chunkSize);
+        context.setFetchPlan(fetchPlans.builder(User.class).add("id").build());
+        return dataManager.loadList(context).stream()
+                .map(User::getId)
+                .toList();
+    }
+
+    private List<String> loadUsernames(List<UUID> ids) {
+        return new ArrayList<>(entityManager.createQuery(
+                        "select e.username from User e where e.id in :ids", String.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    private int inTransaction(TransactionalWork work) {
+        Integer count = transactionTemplate.execute(status -> work.execute());
+        return count != null ? count : 0;
+    }
+
+    @FunctionalInterface
+    private interface TransactionalWork {
+        int execute();
+    }
+
+    public enum Operation {
+        SET_ACTIVE,
+        ASSIGN_ROLE,
+        REVOKE_ROLE,
+        REMOVE
+    }
+}
@@ -1,5 +1,8 @@
 package com.company.sociallogin.view.login;
 
+import com.company.sociallogin.app.ReferenceData;
+import com.company.sociallogin.security.LoginPhase;
+import com.company.sociallogin.security.LoginThrottle;
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.login.AbstractLogin.LoginEvent;
@@ -9,7 +12,6 @@ import com.vaadin.flow.i18n.LocaleChangeObserver;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.VaadinSession;
 import io.jmix.core.CoreProperties;
-import io.jmix.core.MessageTools;
 import io.jmix.core.security.AccessDeniedException;
 import io.jmix.flowui.component.loginform.JmixLoginForm;
 import io.jmix.flowui.kit.component.ComponentUtils;
@@ -27,11 +29,6 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
 
-import java.util.LinkedHashMap;
-import java.util.Locale;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
 @Route(value = "login")
 @ViewController("LoginView")
 @ViewDescriptor("login-view.xml")
@@ -45,11 +42,14 @@ public class LoginView extends StandardView implements LocaleChangeObserver {
     @Autowired
     private LoginViewSupport loginViewSupport;
 
-    @ViewComponent
-    private MessageBundle messageBundle;
+    @Autowired
+    private LoginThrottle loginThrottle;
 
     @Autowired
-    private MessageTools messageTools;
+    private ReferenceData referenceData;
+
+    @ViewComponent
+    private MessageBundle messageBundle;
 
     @ViewComponent
     private JmixLoginForm login;
@@ -67,11 +67,7 @@ public class LoginView extends StandardView implements LocaleChangeObserver {
     }
 
     protected void initLocales() {
-        LinkedHashMap<Locale, String> locales = coreProperties.getAvailableLocales().stream()
-                .collect(Collectors.toMap(Function.identity(), messageTools::getLocaleDisplayName, (s1, s2) -> s1,
-                        LinkedHashMap::new));
-
-        ComponentUtils.setItemsMap(login, locales);
+        ComponentUtils.setItemsMap(login, referenceData.getLocales().getLabels());
 
         login.setSelectedLocale(VaadinSession.getCurrent().getLocale());
     }
@@ -88,12 +84,19 @@ public class LoginView extends StandardView implements LocaleChangeObserver {
 
     @Subscribe("login")
     public void onLogin(final LoginEvent event) {
+        final String address = VaadinSession.getCurrent().getBrowser().getAddress();
+        if (!loginThrottle.tryAcquire(event.getUsername(), address)) {
+            log.warn("Login throttled for user '{}' from {}", event.getUsername(), address);
+            event.getSource().setError(true);
+            return;
+        }
+
         try {
-            loginViewSupport.authenticate(
+            LoginPhase.FORM_LOGIN.run(() -> loginViewSupport.authenticate(
                     AuthDetails.of(event.getUsername(), event.getPassword())
                             .withLocale(login.getSelectedLocale())
                             .withRememberMe(login.isRememberMe())
-            );
+            ));
         } catch (final BadCredentialsException | DisabledException | LockedException | AccessDeniedException e) {
             log.warn("Login failed for user '{}': {}", event.getUsername(), e.toString());
             event.getSource().setError(true);
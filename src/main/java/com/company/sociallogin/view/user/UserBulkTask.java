@@ -0,0 +1,64 @@
+package com.company.sociallogin.view.user;
+
+import io.jmix.flowui.backgroundtask.BackgroundTask;
+import io.jmix.flowui.backgroundtask.TaskLifeCycle;
+import io.jmix.flowui.view.View;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Background task applying a bulk operation to chunks of users.
+ * Chunks are requested one at a time, so ids read from the database are loaded in the background as well.
+ * Publishes the number of processed users after each chunk and stops between chunks when cancelled.
+ */
+public class UserBulkTask extends BackgroundTask<Integer, Integer> {
+
+    private final Iterator<List<UUID>> chunks;
+    private final ToIntFunction<List<UUID>> operation;
+    private final Consumer<Integer> doneHandler;
+
+    public UserBulkTask(View<?> view,
+                        Iterator<List<UUID>> chunks,
+                        ToIntFunction<List<UUID>> operation,
+                        Consumer<Integer> doneHandler) {
+        super(1, TimeUnit.HOURS, view);
+        this.chunks = chunks;
+        this.operation = operation;
+        this.doneHandler = doneHandler;
+    }
+
+    @Override
+    public Integer run(final TaskLifeCycle<Integer> taskLifeCycle) throws Exception {
+        int processed = 0;
+        int affected = 0;
+        while (!taskLifeCycle.isCancelled() && !taskLifeCycle.isInterrupted() && chunks.hasNext()) {
+            final List<UUID> chunk = chunks.next();
+            affected += operation.applyAsInt(chunk);
+            processed += chunk.size();
+            taskLifeCycle.publish(processed);
+        }
+        return affected;
+    }
+
+    @Override
+    public void done(final Integer result) {
+        doneHandler.accept(result);
+    }
+
+    @Override
+    public boolean handleException(final Exception ex) {
+        // Chunks committed before the failure stay applied, so the list must show the actual state
+        doneHandler.accept(null);
+        return false;
+    }
+
+    @Override
+    public void canceled() {
+        doneHandler.accept(null);
+    }
+}
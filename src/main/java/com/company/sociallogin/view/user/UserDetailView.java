@@ -1,5 +1,6 @@
 package com.company.sociallogin.view.user;
 
+import com.company.sociallogin.app.ReferenceData;
 import com.company.sociallogin.entity.User;
 import com.company.sociallogin.view.main.MainView;
 import com.vaadin.flow.component.combobox.ComboBox;
@@ -11,9 +12,7 @@ import io.jmix.flowui.view.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.List;
 import java.util.Objects;
-import java.util.TimeZone;
 
 @Route(value = "users/:id", layout = MainView.class)
 @ViewController("User.detail")
@@ -36,10 +35,12 @@ public class UserDetailView extends StandardDetailView<User> {
     private MessageBundle messageBundle;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ReferenceData referenceData;
 
     @Subscribe
     public void onInit(final InitEvent event) {
-        timeZoneField.setItems(List.of(TimeZone.getAvailableIDs()));
+        timeZoneField.setItems(referenceData.getTimeZones().createDataProvider());
     }
 
     @Subscribe
@@ -0,0 +1,340 @@
+package com.company.sociallogin.view.user;
+
+import com.company.sociallogin.entity.User;
+import com.company.sociallogin.security.UserBulkChangeEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.shared.Registration;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Delivers committed {@link User} changes to open user list views through server push.
+ * <p>
+ * Changes are merged per subscribed UI into row-level diffs and flushed after a short window, so a
+ * burst of social sign-ups results in one push per UI. A flush loads the changed users once for all
+ * UIs, serves at most {@code max-uis-per-flush} UIs and leaves the rest for the next flush. UIs
+ * without a heartbeat for {@code idle-timeout} keep accumulating changes until they are active again,
+ * and detached UIs are dropped. The idle timeout defaults to twice the Vaadin heartbeat interval and
+ * must be longer than the interval, otherwise open background tabs would be taken for idle ones.
+ */
+@Component
+public class UserListUpdates {
+
+    private static final Logger log = LoggerFactory.getLogger(UserListUpdates.class);
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxUisPerFlush;
+    private final int maxPendingPerUi;
+    private final long idleTimeoutMillis;
+
+    @Autowired
+    private UnconstrainedDataManager dataManager;
+    @Autowired
+    private SystemAuthenticator systemAuthenticator;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Queue<Subscription> dirtySubscriptions = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-list-updates");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserListUpdates(@Value("${sociallogin.users.live-update.enabled:false}") boolean enabled,
+                           @Value("${sociallogin.users.live-update.window:500ms}") Duration window,
+                           @Value("${sociallogin.users.live-update.max-uis-per-flush:200}") int maxUisPerFlush,
+                           @Value("${sociallogin.users.live-update.max-pending-per-ui:500}") int maxPendingPerUi,
+                           @Value("${sociallogin.users.live-update.idle-timeout:#{null}}") @Nullable Duration idleTimeout,
+                           @Value("${vaadin.heartbeatInterval:300}") int heartbeatIntervalSeconds) {
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.maxUisPerFlush = maxUisPerFlush;
+        this.maxPendingPerUi = maxPendingPerUi;
+        this.idleTimeoutMillis = getIdleTimeoutMillis(idleTimeout, heartbeatIntervalSeconds);
+    }
+
+    private static long getIdleTimeoutMillis(@Nullable Duration idleTimeout, int heartbeatIntervalSeconds) {
+        if (heartbeatIntervalSeconds <= 0) {
+            // Heartbeats are disabled, so the last heartbeat time says nothing about activity
+            return Long.MAX_VALUE;
+        }
+        Duration heartbeatInterval = Duration.ofSeconds(heartbeatIntervalSeconds);
+        if (idleTimeout == null) {
+            return heartbeatInterval.multipliedBy(2).toMillis();
+        }
+        if (idleTimeout.compareTo(heartbeatInterval) <= 0) {
+            throw new IllegalArgumentException("sociallogin.users.live-update.idle-timeout (" + idleTimeout
+                    + ") must be longer than the Vaadin heartbeat interval (" + heartbeatInterval + ")");
+        }
+        return idleTimeout.toMillis();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Subscribes the UI to user changes. The listener is invoked inside {@link UI#access}.
+     */
+    public Registration subscribe(UI ui, Consumer<Changes> listener) {
+        Subscription subscription = new Subscription(ui, listener);
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(final EntityChangedEvent<User> event) {
+        if (!enabled || subscriptions.isEmpty()) {
+            return;
+        }
+        UUID id = event.getEntityId().getValue();
+        EntityChangedEvent.Type type = event.getType();
+        for (Subscription subscription : subscriptions) {
+            subscription.record(id, type);
+        }
+        scheduleFlush();
+    }
+
+    // Bulk statements produce no entity events. Changed users are reloaded by the flush, and users that
+    // are not found any more are pushed as removed
+    @TransactionalEventListener
+    public void onUsersChangedInBulk(final UserBulkChangeEvent event) {
+        if (!enabled || subscriptions.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            for (UUID id : event.userIds()) {
+                subscription.record(id, EntityChangedEvent.Type.UPDATED);
+            }
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        try {
+            doFlush();
+        } catch (RuntimeException e) {
+            log.error("Failed to push user changes", e);
+        }
+        if (!dirtySubscriptions.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private void doFlush() {
+        long now = System.currentTimeMillis();
+        List<Subscription> idle = new ArrayList<>();
+        Map<Subscription, Map<UUID, EntityChangedEvent.Type>> batches = new HashMap<>();
+        Set<UUID> idsToLoad = new HashSet<>();
+
+        Subscription subscription;
+        while (batches.size() < maxUisPerFlush && (subscription = dirtySubscriptions.poll()) != null) {
+            UI ui = subscription.ui;
+            if (!ui.isAttached() || ui.isClosing() || !subscriptions.contains(subscription)) {
+                subscriptions.remove(subscription);
+                continue;
+            }
+            if (now - ui.getInternals().getLastHeartbeatTimestamp() > idleTimeoutMillis) {
+                idle.add(subscription);
+                continue;
+            }
+            Map<UUID, EntityChangedEvent.Type> batch = subscription.drain();
+            batch.forEach((id, type) -> {
+                if (type != EntityChangedEvent.Type.DELETED) {
+                    idsToLoad.add(id);
+                }
+            });
+            batches.put(subscription, batch);
+        }
+        // Idle UIs keep their pending changes and are reconsidered on the next flush
+        dirtySubscriptions.addAll(idle);
+
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, User> loaded = new HashMap<>();
+        if (!idsToLoad.isEmpty()) {
+            // The flush thread has no security context of its own
+            systemAuthenticator.runWithSystem(() -> dataManager.load(User.class)
+                    .query("select e from User e where e.id in :ids")
+                    .parameter("ids", idsToLoad)
+                    .fetchPlan("_base")
+                    .list()
+                    .forEach(user -> loaded.put(user.getId(), user)));
+        }
+
+        batches.forEach((sub, batch) -> {
+            try {
+                sub.push(Changes.of(batch, loaded));
+            } catch (UIDetachedException e) {
+                // Detached after the check above; the other UIs still get their changes
+                subscriptions.remove(sub);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdownNow();
+    }
+
+    private static EntityChangedEvent.Type mergeChange(EntityChangedEvent.Type previous,
+                                                       EntityChangedEvent.Type next) {
+        if (previous == EntityChangedEvent.Type.CREATED) {
+            // A row created and deleted within one window never reaches the UI
+            return next == EntityChangedEvent.Type.DELETED ? null : previous;
+        }
+        return next == EntityChangedEvent.Type.CREATED ? EntityChangedEvent.Type.UPDATED : next;
+    }
+
+    private final class Subscription {
+
+        private final UI ui;
+        private final Consumer<Changes> listener;
+        private final Map<UUID, EntityChangedEvent.Type> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile boolean reloadRequired;
+
+        Subscription(UI ui, Consumer<Changes> listener) {
+            this.ui = ui;
+            this.listener = listener;
+        }
+
+        void record(UUID id, EntityChangedEvent.Type type) {
+            if (!reloadRequired) {
+                pending.merge(id, type, UserListUpdates::mergeChange);
+                if (pending.size() > maxPendingPerUi) {
+                    // Too many changes to apply row by row: the view reloads the whole page instead
+                    reloadRequired = true;
+                    pending.clear();
+                }
+            }
+            markDirty();
+        }
+
+        Map<UUID, EntityChangedEvent.Type> drain() {
+            Map<UUID, EntityChangedEvent.Type> batch = new HashMap<>();
+            for (Map.Entry<UUID, EntityChangedEvent.Type> entry : pending.entrySet()) {
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+            dirty.set(false);
+            if (!pending.isEmpty()) {
+                markDirty();
+            }
+            return batch;
+        }
+
+        void push(Changes changes) {
+            boolean reload = reloadRequired;
+            reloadRequired = false;
+            if (changes.isEmpty() && !reload) {
+                return;
+            }
+            ui.access(() -> listener.accept(reload ? Changes.RELOAD : changes));
+        }
+
+        private void markDirty() {
+            if (dirty.compareAndSet(false, true)) {
+                dirtySubscriptions.add(this);
+            }
+        }
+    }
+
+    /**
+     * Row-level diff of the user list accumulated since the previous push.
+     */
+    public static final class Changes {
+
+        static final Changes RELOAD = new Changes(List.of(), List.of(), Set.of(), true);
+
+        private final List<User> created;
+        private final List<User> updated;
+        private final Set<UUID> removedIds;
+        private final boolean reloadRequired;
+
+        private Changes(List<User> created, List<User> updated, Set<UUID> removedIds, boolean reloadRequired) {
+            this.created = created;
+            this.updated = updated;
+            this.removedIds = removedIds;
+            this.reloadRequired = reloadRequired;
+        }
+
+        static Changes of(Map<UUID, EntityChangedEvent.Type> batch, Map<UUID, User> loaded) {
+            List<User> created = new ArrayList<>();
+            List<User> updated = new ArrayList<>();
+            Set<UUID> removedIds = new HashSet<>();
+            batch.forEach((id, type) -> {
+                User user = loaded.get(id);
+                if (type == EntityChangedEvent.Type.DELETED || user == null) {
+                    removedIds.add(id);
+                } else if (type == EntityChangedEvent.Type.CREATED) {
+                    created.add(user);
+                } else {
+                    updated.add(user);
+                }
+            });
+            return new Changes(created, updated, removedIds, false);
+        }
+
+        public Collection<User> getCreated() {
+            return Collections.unmodifiableList(created);
+        }
+
+        public Collection<User> getUpdated() {
+            return Collections.unmodifiableList(updated);
+        }
+
+        public Set<UUID> getRemovedIds() {
+            return Collections.unmodifiableSet(removedIds);
+        }
+
+        public boolean isReloadRequired() {
+            return reloadRequired;
+        }
+
+        boolean isEmpty() {
+            return created.isEmpty() && updated.isEmpty() && removedIds.isEmpty();
+        }
+    }
+}
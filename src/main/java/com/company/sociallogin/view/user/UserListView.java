@@ -1,11 +1,42 @@
 package com.company.sociallogin.view.user;
 
 import com.company.sociallogin.entity.User;
+import com.company.sociallogin.security.UserBulkOperations;
 import com.company.sociallogin.view.main.MainView;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.shared.Registration;
+import io.jmix.core.MetadataTools;
+import io.jmix.core.Sort;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
 import io.jmix.core.security.CurrentAuthentication;
+import io.jmix.flowui.Dialogs;
+import io.jmix.flowui.Notifications;
+import io.jmix.flowui.UiComponents;
+import io.jmix.flowui.action.DialogAction;
+import io.jmix.flowui.app.inputdialog.DialogOutcome;
+import io.jmix.flowui.app.inputdialog.InputParameter;
+import io.jmix.flowui.component.combobox.JmixComboBox;
+import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.kit.action.ActionPerformedEvent;
+import io.jmix.flowui.kit.action.BaseAction;
+import io.jmix.flowui.model.CollectionContainer;
+import io.jmix.flowui.model.CollectionLoader;
 import io.jmix.flowui.view.*;
+import io.jmix.security.model.BaseRole;
+import io.jmix.security.model.ResourceRole;
+import io.jmix.security.role.ResourceRoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
 @Route(value = "users", layout = MainView.class)
 @ViewController("User.list")
@@ -15,6 +46,61 @@ import org.springframework.beans.factory.annotation.Autowired;
 public class UserListView extends StandardListView<User> {
     @Autowired
     private CurrentAuthentication currentAuthentication;
+    @Autowired
+    private UserListUpdates userListUpdates;
+    @Autowired
+    private MetadataTools metadataTools;
+    @Autowired
+    private UserBulkOperations userBulkOperations;
+    @Autowired
+    private ResourceRoleRepository resourceRoleRepository;
+    @Autowired
+    private Dialogs dialogs;
+    @Autowired
+    private Notifications notifications;
+    @Autowired
+    private UiComponents uiComponents;
+
+    @ViewComponent
+    private CollectionContainer<User> usersDc;
+    @ViewComponent
+    private CollectionLoader<User> usersDl;
+    @ViewComponent
+    private DataGrid<User> usersDataGrid;
+    @ViewComponent
+    private MessageBundle messageBundle;
+    @ViewComponent("usersDataGrid.bulkActivate")
+    private BaseAction bulkActivateAction;
+    @ViewComponent("usersDataGrid.bulkDeactivate")
+    private BaseAction bulkDeactivateAction;
+    @ViewComponent("usersDataGrid.bulkAssignRole")
+    private BaseAction bulkAssignRoleAction;
+    @ViewComponent("usersDataGrid.bulkRevokeRole")
+    private BaseAction bulkRevokeRoleAction;
+    @ViewComponent("usersDataGrid.bulkRemove")
+    private BaseAction bulkRemoveAction;
+
+    private Registration userUpdatesRegistration;
+
+    @Subscribe
+    public void onInit(final InitEvent event) {
+        bulkActivateAction.setEnabled(userBulkOperations.isPermitted(UserBulkOperations.Operation.SET_ACTIVE));
+        bulkDeactivateAction.setEnabled(userBulkOperations.isPermitted(UserBulkOperations.Operation.SET_ACTIVE));
+        bulkAssignRoleAction.setEnabled(userBulkOperations.isPermitted(UserBulkOperations.Operation.ASSIGN_ROLE));
+        bulkRevokeRoleAction.setEnabled(userBulkOperations.isPermitted(UserBulkOperations.Operation.REVOKE_ROLE));
+        bulkRemoveAction.setEnabled(userBulkOperations.isPermitted(UserBulkOperations.Operation.REMOVE));
+
+        if (userListUpdates.isEnabled()) {
+            addAttachListener(attachEvent ->
+                    userUpdatesRegistration = userListUpdates.subscribe(attachEvent.getUI(), this::applyUserChanges));
+            addDetachListener(detachEvent -> {
+                if (userUpdatesRegistration != null) {
+                    userUpdatesRegistration.remove();
+                    userUpdatesRegistration = null;
+                }
+            });
+        }
+    }
 
     @Subscribe
     public void onBeforeShow(final BeforeShowEvent event) {
@@ -22,5 +108,188 @@ public class UserListView extends StandardListView<User> {
         System.out.println("User: " + user);
     }
 
+    @Subscribe("usersDataGrid.bulkActivate")
+    public void onUsersDataGridBulkActivate(final ActionPerformedEvent event) {
+        final String currentUsername = currentAuthentication.getUser().getUsername();
+        selectBulkScope(scope -> runBulkTask(scope, ids -> userBulkOperations.setActive(ids, true, currentUsername)));
+    }
+
+    @Subscribe("usersDataGrid.bulkDeactivate")
+    public void onUsersDataGridBulkDeactivate(final ActionPerformedEvent event) {
+        final String currentUsername = currentAuthentication.getUser().getUsername();
+        selectBulkScope(scope -> runBulkTask(scope, ids -> userBulkOperations.setActive(ids, false, currentUsername)));
+    }
+
+    @Subscribe("usersDataGrid.bulkAssignRole")
+    public void onUsersDataGridBulkAssignRole(final ActionPerformedEvent event) {
+        selectBulkScope(scope -> selectResourceRole(roleCode ->
+                runBulkTask(scope, ids -> userBulkOperations.assignResourceRole(ids, roleCode))));
+    }
+
+    @Subscribe("usersDataGrid.bulkRevokeRole")
+    public void onUsersDataGridBulkRevokeRole(final ActionPerformedEvent event) {
+        selectBulkScope(scope -> selectResourceRole(roleCode ->
+                runBulkTask(scope, ids -> userBulkOperations.revokeResourceRole(ids, roleCode))));
+    }
+
+    @Subscribe("usersDataGrid.bulkRemove")
+    public void onUsersDataGridBulkRemove(final ActionPerformedEvent event) {
+        final String currentUsername = currentAuthentication.getUser().getUsername();
+        selectBulkScope(scope -> dialogs.createOptionDialog()
+                .withHeader(messageBundle.getMessage("bulkRemove"))
+                .withText(messageBundle.formatMessage("bulkRemoveConfirmation", scope.total()))
+                .withActions(
+                        new DialogAction(DialogAction.Type.YES).withHandler(actionEvent ->
+                                runBulkTask(scope, ids -> userBulkOperations.remove(ids, currentUsername))),
+                        new DialogAction(DialogAction.Type.NO)
+                )
+                .open());
+    }
+
+    // Offers the users selected on the current page and all users matching the current filter
+    private void selectBulkScope(final Consumer<BulkScope> handler) {
+        final List<UUID> selectedIds = usersDataGrid.getSelectedItems().stream()
+                .map(User::getId)
+                .toList();
+        final String query = usersDl.getQuery();
+        final Condition condition = usersDl.getCondition();
+        final Map<String, Object> parameters = usersDl.getParameters();
+        final long matching = userBulkOperations.countMatching(query, condition, parameters);
+
+        dialogs.createOptionDialog()
+                .withHeader(messageBundle.getMessage("bulkScope"))
+                .withText(messageBundle.getMessage("bulkScopeText"))
+                .withActions(
+                        new BaseAction("selected")
+                                .withText(messageBundle.formatMessage("bulkScopeSelected", selectedIds.size()))
+                                .withEnabled(!selectedIds.isEmpty())
+                                .withHandler(actionEvent -> handler.accept(new BulkScope(selectedIds.size(),
+                                        () -> userBulkOperations.chunk(selectedIds).iterator()))),
+                        new BaseAction("matching")
+                                .withText(messageBundle.formatMessage("bulkScopeMatching", matching))
+                                .withEnabled(matching > 0)
+                                .withHandler(actionEvent -> handler.accept(new BulkScope(matching,
+                                        () -> userBulkOperations.chunkMatching(query, condition, parameters)))),
+                        new DialogAction(DialogAction.Type.CANCEL)
+                )
+                .open();
+    }
+
+    private void selectResourceRole(final Consumer<String> handler) {
+        final Map<String, String> roleNames = resourceRoleRepository.getAllRoles().stream()
+                .collect(Collectors.toMap(BaseRole::getCode, ResourceRole::getName, (s1, s2) -> s1));
 
+        dialogs.createInputDialog(this)
+                .withHeader(messageBundle.getMessage("bulkRole"))
+                .withParameters(
+                        InputParameter.stringParameter("roleCode")
+                                .withField(() -> {
+                                    final JmixComboBox<String> field = uiComponents.create(JmixComboBox.class);
+                                    field.setLabel(messageBundle.getMessage("bulkRole"));
+                                    field.setItems(roleNames.keySet().stream().sorted().toList());
+                                    field.setItemLabelGenerator(roleNames::get);
+                                    field.setRequired(true);
+                                    field.setWidthFull();
+                                    return field;
+                                })
+                )
+                .withCloseListener(closeEvent -> {
+                    if (closeEvent.closedWith(DialogOutcome.OK)) {
+                        handler.accept(closeEvent.getValue("roleCode"));
+                    }
+                })
+                .open();
+    }
+
+    private void runBulkTask(final BulkScope scope, final ToIntFunction<List<UUID>> operation) {
+        final UserBulkTask task = new UserBulkTask(this, scope.chunks().get(), operation, this::onBulkTaskDone);
+        dialogs.createBackgroundTaskDialog(task)
+                .withHeader(messageBundle.getMessage("bulkProgressHeader"))
+                .withText(messageBundle.formatMessage("bulkProgressText", scope.total()))
+                .withTotal(scope.total())
+                .withShowProgressInPercentage(true)
+                .withCancelAllowed(true)
+                .open();
+    }
+
+    private void onBulkTaskDone(@Nullable final Integer affected) {
+        // Other views get the bulk changes from UserListUpdates; this one reloads once the task is over
+        usersDataGrid.deselectAll();
+        usersDl.load();
+        if (affected != null) {
+            notifications.create(messageBundle.formatMessage("bulkDone", affected))
+                    .withType(Notifications.Type.SUCCESS)
+                    .show();
+        }
+    }
+
+    private void applyUserChanges(final UserListUpdates.Changes changes) {
+        if (changes.isReloadRequired()) {
+            usersDl.load();
+            return;
+        }
+        for (final UUID id : changes.getRemovedIds()) {
+            final User item = usersDc.getItemOrNull(id);
+            if (item != null) {
+                usersDc.getMutableItems().remove(item);
+            }
+        }
+        // Loaded instances are shared by all subscribed UIs, so each view works with its own copies
+        for (final User user : changes.getUpdated()) {
+            if (usersDc.containsItem(user.getId())) {
+                usersDc.replaceItem(metadataTools.copy(user));
+            }
+        }
+        for (final User user : changes.getCreated()) {
+            if (!usersDc.containsItem(user.getId()) && !insertIntoPage(user)) {
+                // The user belongs to another page or the rows cannot be placed on the client side
+                usersDl.load();
+                return;
+            }
+        }
+    }
+
+    // Inserts a created user in username order if it falls within the rows of the current page
+    private boolean insertIntoPage(final User user) {
+        if (!isUnfiltered() || !isSortedByUsername()) {
+            return false;
+        }
+        final List<User> items = usersDc.getMutableItems();
+        int index = 0;
+        while (index < items.size() && items.get(index).getUsername().compareTo(user.getUsername()) < 0) {
+            index++;
+        }
+        final int maxResults = usersDl.getMaxResults();
+        final boolean pageFull = maxResults > 0 && items.size() >= maxResults;
+        if ((index == 0 && usersDl.getFirstResult() > 0) || (index == items.size() && pageFull)) {
+            return false;
+        }
+        items.add(index, metadataTools.copy(user));
+        if (pageFull) {
+            // The last row moves to the next page
+            items.remove(items.size() - 1);
+        }
+        return true;
+    }
+
+    // Rows are ordered by the loader query unless the grid is sorted by another column
+    private boolean isSortedByUsername() {
+        final Sort sort = usersDl.getSort();
+        if (sort == null || sort.getOrders().isEmpty()) {
+            return true;
+        }
+        final Sort.Order order = sort.getOrders().get(0);
+        return sort.getOrders().size() == 1
+                && order.getProperty().equals("username")
+                && order.getDirection() == Sort.Direction.ASC;
+    }
+
+    private boolean isUnfiltered() {
+        final Condition condition = usersDl.getCondition();
+        return condition == null
+                || (condition instanceof LogicalCondition logicalCondition && logicalCondition.getConditions().isEmpty());
+    }
+
+    private record BulkScope(long total, Supplier<Iterator<List<UUID>>> chunks) {
+    }
 }
\ No newline at end of file
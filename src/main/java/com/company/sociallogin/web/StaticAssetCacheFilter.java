@@ -0,0 +1,148 @@
+package com.company.sociallogin.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets caching headers for static assets served by Vaadin.
+ * <p>
+ * Files of the production bundle have content hashes in their names, so they are sent with an immutable
+ * {@code Cache-Control} and never revalidated. Other static resources, like the PWA icon, must keep stable
+ * names and are revalidated with a strong content {@code ETag}, answered with 304 without touching the
+ * resource. Precompressed {@code .br} and {@code .gz} variants are picked by Vaadin's static file server.
+ */
+public class StaticAssetCacheFilter extends OncePerRequestFilter {
+
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    static final String REVALIDATE_CACHE_CONTROL = "no-cache";
+
+    private static final List<String> RESOURCE_ROOTS = List.of("META-INF/VAADIN/webapp", "META-INF/resources");
+
+    private final List<String> fingerprintedPrefixes;
+    private final List<String> revalidatedPrefixes;
+    private final Map<String, Optional<String>> etags = new ConcurrentHashMap<>();
+
+    public StaticAssetCacheFilter(List<String> fingerprintedPrefixes, List<String> revalidatedPrefixes) {
+        this.fingerprintedPrefixes = fingerprintedPrefixes;
+        this.revalidatedPrefixes = revalidatedPrefixes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath() + (request.getPathInfo() != null ? request.getPathInfo() : "");
+        return !startsWithAny(path, fingerprintedPrefixes) && !startsWithAny(path, revalidatedPrefixes);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getServletPath() + (request.getPathInfo() != null ? request.getPathInfo() : "");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (startsWithAny(path, fingerprintedPrefixes)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        } else {
+            Optional<String> etag = getEtag(path);
+            if (etag.isEmpty()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL);
+            response.setHeader(HttpHeaders.ETAG, etag.get());
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && ifNoneMatch.contains(etag.get())) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        filterChain.doFilter(request, new CacheHeadersProtectingResponse(response));
+    }
+
+    private Optional<String> getEtag(String path) {
+        Optional<String> etag = etags.get(path);
+        if (etag == null) {
+            etag = computeEtag(path);
+            // Only existing resources are remembered, so arbitrary request paths cannot grow the map
+            if (etag.isPresent()) {
+                etags.put(path, etag);
+            }
+        }
+        return etag;
+    }
+
+    private Optional<String> computeEtag(String path) {
+        if (path.contains("..")) {
+            return Optional.empty();
+        }
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (String root : RESOURCE_ROOTS) {
+            try (InputStream inputStream = classLoader.getResourceAsStream(root + path)) {
+                if (inputStream != null) {
+                    return Optional.of("\"" + DigestUtils.md5DigestAsHex(inputStream) + "\"");
+                }
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWithAny(String path, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the caching headers set by this filter when the static file server writes its defaults.
+     */
+    private static class CacheHeadersProtectingResponse extends HttpServletResponseWrapper {
+
+        CacheHeadersProtectingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!isProtected(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!isProtected(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            if (!HttpHeaders.EXPIRES.equalsIgnoreCase(name)) {
+                super.setDateHeader(name, date);
+            }
+        }
+
+        private boolean isProtected(String name) {
+            return HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name)
+                    || HttpHeaders.ETAG.equalsIgnoreCase(name)
+                    || HttpHeaders.EXPIRES.equalsIgnoreCase(name);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.company.sociallogin.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+@Configuration
+public class StaticAssetsConfiguration {
+
+    @Bean
+    FilterRegistrationBean<StaticAssetCacheFilter> staticAssetCacheFilter(
+            @Value("${sociallogin.static-assets.fingerprinted-prefixes:/VAADIN/build/}") List<String> fingerprintedPrefixes,
+            @Value("${sociallogin.static-assets.revalidated-prefixes:/icons/}") List<String> revalidatedPrefixes) {
+        FilterRegistrationBean<StaticAssetCacheFilter> registration = new FilterRegistrationBean<>(
+                new StaticAssetCacheFilter(fingerprintedPrefixes, revalidatedPrefixes));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,52 @@
+package com.company.sociallogin.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReferenceItemsTest {
+
+    @Test
+    void test_filterByWordPrefix() {
+        ReferenceItems<String> items = new ReferenceItems<>(
+                List.of("Europe/Berlin", "America/New_York", "Europe/Amsterdam", "Asia/Yerevan"),
+                Function.identity());
+
+        assertThat(items.getItems()).containsExactly(
+                "America/New_York", "Asia/Yerevan", "Europe/Amsterdam", "Europe/Berlin");
+        assertThat(items.filter("eur")).containsExactly("Europe/Amsterdam", "Europe/Berlin");
+        assertThat(items.filter("BERL")).containsExactly("Europe/Berlin");
+        assertThat(items.filter("new y")).containsExactly("America/New_York");
+        assertThat(items.filter("york")).containsExactly("America/New_York");
+        assertThat(items.filter("erlin")).isEmpty();
+        assertThat(items.filter(" ")).hasSize(4);
+    }
+
+    @Test
+    void test_keepItemOrder() {
+        ReferenceItems<String> items = new ReferenceItems<>(List.of("en", "ru", "de"),
+                code -> switch (code) {
+                    case "en" -> "English";
+                    case "ru" -> "Russian";
+                    default -> "German";
+                }, false);
+
+        assertThat(items.getItems()).containsExactly("en", "ru", "de");
+        assertThat(items.getLabels().keySet()).containsExactly("en", "ru", "de");
+        assertThat(items.filter("e")).containsExactly("en");
+        assertThat(items.filter("g")).containsExactly("de");
+    }
+
+    @Test
+    void test_timeZones() {
+        ReferenceItems<String> items = new ReferenceItems<>(List.of(TimeZone.getAvailableIDs()), Function.identity());
+
+        assertThat(items.getItems()).hasSize(TimeZone.getAvailableIDs().length);
+        assertThat(items.filter("Europe/Berlin")).containsExactly("Europe/Berlin");
+        assertThat(items.filter("berlin")).contains("Europe/Berlin");
+    }
+}
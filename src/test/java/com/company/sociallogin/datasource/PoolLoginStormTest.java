@@ -0,0 +1,181 @@
+package com.company.sociallogin.datasource;
+
+import com.company.sociallogin.security.LoginPhase;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login storm against an in-memory HSQLDB pool: 64 threads each perform social logins that look up and
+ * update a user while holding a connection. The storm is run with a fixed pool of 2 connections and with
+ * {@link AdaptivePoolSizer} allowed to grow the pool up to 16, reporting time and acquisition latency.
+ * Only the pool growth is asserted, the timings are logged for comparison.
+ */
+public class PoolLoginStormTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolLoginStormTest.class);
+
+    private static final int THREADS = 64;
+    private static final int LOGINS_PER_THREAD = 20;
+    private static final int USERS = 1000;
+
+    @Test
+    void test_loginStorm() throws Exception {
+        StormResult fixed = runStorm("fixed", false);
+        StormResult adaptive = runStorm("adaptive", true);
+
+        assertThat(fixed.monitor().getAcquireTime().getCount()).isGreaterThanOrEqualTo(THREADS * LOGINS_PER_THREAD);
+        // Waiting for one of 2 connections with 64 threads takes longer than the 20 ms threshold
+        assertThat(fixed.monitor().getRecentEvents())
+                .isNotEmpty()
+                .allSatisfy(event -> assertThat(event.type()).isEqualTo(PoolEvent.Type.SLOW_ACQUIRE))
+                .anySatisfy(event -> assertThat(event.phase()).isEqualTo(LoginPhase.SOCIAL_USER_UPDATE));
+        assertThat(fixed.maxPoolSize()).isEqualTo(2);
+
+        // Timings depend on the machine and are only logged; the pool must grow within its bounds
+        assertThat(adaptive.maxPoolSize()).isGreaterThan(2).isLessThanOrEqualTo(16);
+        assertThat(adaptive.monitor().getAcquireTime().getCount()).isGreaterThanOrEqualTo(THREADS * LOGINS_PER_THREAD);
+    }
+
+    @Test
+    void test_nextSize() throws SQLException {
+        try (HikariDataSource dataSource = createDataSource("sizing", 4, null)) {
+            AdaptivePoolSizer sizer = new AdaptivePoolSizer(true, 2, 10, 2, 3, dataSource);
+
+            assertThat(sizer.nextSize(4, 1, 4)).isEqualTo(6);
+            assertThat(sizer.nextSize(6, 7, 6)).isEqualTo(10);
+            assertThat(sizer.nextSize(10, 0, 10)).isEqualTo(10);
+            assertThat(sizer.nextSize(10, 0, 1)).isEqualTo(10);
+            assertThat(sizer.nextSize(10, 0, 1)).isEqualTo(10);
+            assertThat(sizer.nextSize(10, 0, 1)).isEqualTo(8);
+            assertThat(sizer.nextSize(2, 0, 0)).isEqualTo(2);
+        }
+    }
+
+    private StormResult runStorm(String name, boolean adaptive) throws Exception {
+        PoolMonitor monitor = new PoolMonitor(Duration.ofMillis(20), Duration.ofSeconds(30), 1000,
+                () -> null, event -> {
+        });
+        try (HikariDataSource dataSource = createDataSource("storm-" + name, 2, monitor)) {
+            createUsers(dataSource);
+
+            ScheduledExecutorService sizerExecutor = Executors.newSingleThreadScheduledExecutor();
+            if (adaptive) {
+                AdaptivePoolSizer sizer = new AdaptivePoolSizer(true, 2, 16, 2, 60, dataSource);
+                sizerExecutor.scheduleWithFixedDelay(sizer::adjust, 20, 20, TimeUnit.MILLISECONDS);
+            }
+
+            AtomicInteger maxPoolSize = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < LOGINS_PER_THREAD; i++) {
+                            String username = "github:" + (offset * LOGINS_PER_THREAD + i) % USERS;
+                            LoginPhase.SOCIAL_USER_UPDATE.run(() -> login(dataSource, username));
+                            maxPoolSize.accumulateAndGet(dataSource.getMaximumPoolSize(), Math::max);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            sizerExecutor.shutdownNow();
+
+            LatencyHistogram acquireTime = monitor.getAcquireTime();
+            log.info("Login storm with {} pool: {} logins in {} ms, acquire p50 {} ms, p95 {} ms, p99 {} ms, " +
+                            "max pool size {}, {} slow acquisitions",
+                    name, THREADS * LOGINS_PER_THREAD, millis,
+                    acquireTime.getPercentileMillis(0.5), acquireTime.getPercentileMillis(0.95),
+                    acquireTime.getPercentileMillis(0.99), maxPoolSize.get(), monitor.getRecentEvents().size());
+            return new StormResult(monitor, maxPoolSize.get());
+        }
+    }
+
+    // Looks up the user and updates the last login time, as OAuth2SecurityConfiguration does
+    private static void login(HikariDataSource dataSource, String username) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement("select ID from USER_ where USERNAME = ?")) {
+                select.setString(1, username);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update USER_ set LAST_LOGIN = ? where USERNAME = ?")) {
+                update.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                update.setString(2, username);
+                update.executeUpdate();
+            }
+            // Time the transaction stays open while the entity is saved and the session is set up
+            Thread.sleep(2);
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HikariDataSource createDataSource(String name, int poolSize, PoolMonitor monitor) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:hsqldb:mem:" + name + ";hsqldb.tx=mvcc");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(poolSize);
+        dataSource.setConnectionTimeout(30_000);
+        if (monitor != null) {
+            dataSource.setMetricsTrackerFactory(monitor);
+        }
+        return dataSource;
+    }
+
+    private static void createUsers(HikariDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table USER_ (ID int primary key, USERNAME varchar(255) not null, " +
+                    "LAST_LOGIN timestamp)");
+            statement.execute("create unique index IDX_USER__ON_USERNAME on USER_ (USERNAME)");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into USER_ (ID, USERNAME) values (?, ?)")) {
+                for (int i = 0; i < USERS; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "github:" + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private record StormResult(PoolMonitor monitor, int maxPoolSize) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.company.sociallogin.security;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention benchmark for {@link LoginThrottle}: 64 threads hammer a small set of hot keys,
+ * checking that no bucket admits more than its burst and reporting the achieved throughput.
+ */
+public class LoginThrottleBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginThrottleBenchmarkTest.class);
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 200_000;
+    private static final int BURST = 10;
+
+    @Test
+    void test_contentionAt64Threads() throws Exception {
+        // Frozen clock: buckets never refill, so each key must admit exactly BURST attempts
+        AtomicLong clock = new AtomicLong(System.nanoTime());
+        LoginThrottle throttle = new LoginThrottle(true, BURST, Duration.ofSeconds(6), BURST, Duration.ofSeconds(6),
+                Duration.ofMinutes(15), 100_000, clock::get);
+
+        String[] usernames = new String[16];
+        for (int i = 0; i < usernames.length; i++) {
+            usernames[i] = "user-" + i;
+        }
+        String address = "10.0.0.1";
+
+        LongAdder admitted = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (throttle.tryAcquire(usernames[(i + offset) & (usernames.length - 1)], null)) {
+                            admitted.increment();
+                        }
+                    }
+                });
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            long attempts = (long) THREADS * ATTEMPTS_PER_THREAD;
+            log.info("LoginThrottle: {} threads, {} attempts in {} ms, {} attempts/s",
+                    THREADS, attempts, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    attempts * 1_000_000_000L / Math.max(elapsedNanos, 1));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(admitted.sum()).isEqualTo((long) usernames.length * BURST);
+        assertThat(throttle.tryAcquire(null, address)).isTrue();
+    }
+
+    @Test
+    void test_refillAndOverflow() {
+        AtomicLong clock = new AtomicLong(0);
+        LoginThrottle throttle = new LoginThrottle(true, 2, Duration.ofSeconds(1), 3, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 1, clock::get);
+
+        assertThat(throttle.tryAcquire("a", null)).isTrue();
+        assertThat(throttle.tryAcquire("a", null)).isTrue();
+        assertThat(throttle.tryAcquire("a", null)).isFalse();
+
+        // The map is full, so a new key is limited by its overflow stripe
+        assertThat(throttle.tryAcquire("b", null)).isTrue();
+
+        // After the bucket of "a" refills and idles out, "c" gets a dedicated bucket
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(throttle.tryAcquire("c", null)).isTrue();
+        assertThat(throttle.tryAcquire("c", null)).isTrue();
+        assertThat(throttle.tryAcquire("c", null)).isFalse();
+
+        // Addresses have their own limits
+        assertThat(throttle.tryAcquire(null, "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire(null, "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire(null, "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire(null, "10.0.0.1")).isFalse();
+    }
+}
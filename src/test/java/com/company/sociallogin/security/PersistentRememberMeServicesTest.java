@@ -0,0 +1,205 @@
+package com.company.sociallogin.security;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.CookieTheftException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PersistentRememberMeServicesTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private RememberMeTokenStore tokenStore;
+    private final AtomicInteger userLoads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:hsqldb:mem:remember-me", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table REMEMBER_ME_TOKEN (SERIES_HASH varchar(64) primary key, " +
+                "USERNAME varchar(255) not null, TOKEN_HASH varchar(64) not null, " +
+                "LAST_USED timestamp not null, EXPIRES_AT timestamp not null, " +
+                "PREVIOUS_TOKEN_HASH varchar(64), ROTATED_AT timestamp)");
+        tokenStore = new RememberMeTokenStore(2, 100, dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop table REMEMBER_ME_TOKEN");
+        dataSource.destroy();
+    }
+
+    @Test
+    void test_parallelRequestsWithSameCookie() throws Exception {
+        PersistentRememberMeServices services = createServices(Duration.ofSeconds(10), 100, Duration.ZERO);
+        Cookie cookie = login(services, "jdoe");
+        assertParallelRequestsCoalesced(services, cookie);
+    }
+
+    @Test
+    void test_parallelRequestsWithFullValidationCache() throws Exception {
+        PersistentRememberMeServices services = createServices(Duration.ofSeconds(10), 1, Duration.ZERO);
+        // Fills the cache with a validation that has not expired yet
+        autoLogin(services, login(services, "other"));
+        userLoads.set(0);
+
+        Cookie cookie = login(services, "jdoe");
+        assertParallelRequestsCoalesced(services, cookie);
+    }
+
+    @Test
+    void test_previousCookieAcceptedWithinRotationGrace() {
+        PersistentRememberMeServices services = createServices(Duration.ZERO, 100, Duration.ofMinutes(1));
+        Cookie cookie = login(services, "jdoe");
+        MockHttpServletResponse response = autoLogin(services, cookie);
+        assertThat(response.getCookie("remember-me")).isNotNull();
+
+        // A request sent with the previous cookie, e.g. to another instance, before the new one arrived
+        MockHttpServletResponse lateResponse = autoLogin(services, cookie);
+        assertThat(lateResponse.getCookie("remember-me")).isNull();
+        assertThat(countTokens()).isEqualTo(1);
+
+        // The new cookie keeps working
+        assertThat(autoLogin(services, response.getCookie("remember-me")).getCookie("remember-me")).isNotNull();
+    }
+
+    @Test
+    void test_outdatedCookieRemovesUserTokens() {
+        PersistentRememberMeServices services = createServices(Duration.ZERO, 100, Duration.ZERO);
+        Cookie cookie = login(services, "jdoe");
+        login(services, "jdoe");
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(cookie);
+        assertThat(services.autoLogin(request, new MockHttpServletResponse())).isNotNull();
+
+        // The same cookie is presented again after the token was rotated
+        MockHttpServletRequest copiedRequest = new MockHttpServletRequest();
+        copiedRequest.setCookies(cookie);
+        assertThatThrownBy(() -> services.autoLogin(copiedRequest, new MockHttpServletResponse()))
+                .isInstanceOf(CookieTheftException.class);
+        assertThat(countTokens()).isZero();
+    }
+
+    private void assertParallelRequestsCoalesced(PersistentRememberMeServices services, Cookie cookie)
+            throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                MockHttpServletRequest request = new MockHttpServletRequest();
+                request.setCookies(cookie);
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                startLatch.await();
+                Authentication authentication = services.autoLogin(request, response);
+                assertThat(authentication.getName()).isEqualTo("jdoe");
+                return response;
+            }));
+        }
+        startLatch.countDown();
+
+        String rotatedCookie = null;
+        for (Future<MockHttpServletResponse> future : futures) {
+            String value = future.get().getCookie("remember-me").getValue();
+            assertThat(value).isNotEqualTo(cookie.getValue());
+            if (rotatedCookie == null) {
+                rotatedCookie = value;
+            }
+            assertThat(value).isEqualTo(rotatedCookie);
+        }
+        executor.shutdown();
+
+        assertThat(userLoads.get()).isEqualTo(1);
+        assertThat(tokenStore.find(decodeSeries(cookie))).hasValueSatisfying(storedToken ->
+                assertThat(storedToken.previousTokenHash()).isNotNull());
+    }
+
+    @Test
+    void test_rotateIsConditional() {
+        Instant now = Instant.now();
+        tokenStore.create("jdoe", "series", "token", now, now.plusSeconds(60));
+
+        assertThat(tokenStore.rotate("series", "token", "token-1", now, now.plusSeconds(60))).isTrue();
+        assertThat(tokenStore.rotate("series", "token", "token-2", now, now.plusSeconds(60))).isFalse();
+        assertThat(tokenStore.find("series")).hasValueSatisfying(storedToken ->
+                assertThat(storedToken.tokenHash()).isEqualTo(RememberMeTokenStore.hash("token-1")));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from REMEMBER_ME_TOKEN where SERIES_HASH = ?",
+                Integer.class, "series")).isZero();
+    }
+
+    @Test
+    void test_deleteExpiredTokensInBatches() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            tokenStore.create("expired", "expired-" + i, "token", now.minusSeconds(120), now.minusSeconds(60));
+        }
+        tokenStore.create("jdoe", "valid", "token", now, now.plusSeconds(60));
+
+        assertThat(tokenStore.deleteExpiredTokens(now)).isEqualTo(5);
+        assertThat(countTokens()).isEqualTo(1);
+        assertThat(tokenStore.find("valid")).isPresent();
+    }
+
+    private PersistentRememberMeServices createServices(Duration validationCacheTtl,
+                                                        int validationCacheSize,
+                                                        Duration rotationGrace) {
+        UserDetailsService userDetailsService = username -> {
+            userLoads.incrementAndGet();
+            return User.withUsername(username).password("").authorities(List.of()).build();
+        };
+        return new PersistentRememberMeServices("test", Duration.ofDays(14), validationCacheTtl,
+                validationCacheSize, rotationGrace, userDetailsService, tokenStore);
+    }
+
+    private Cookie login(PersistentRememberMeServices services, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("remember-me", "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        services.loginSuccess(request, response, new TestingAuthenticationToken(username, null));
+        return response.getCookie("remember-me");
+    }
+
+    private MockHttpServletResponse autoLogin(PersistentRememberMeServices services, Cookie cookie) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(services.autoLogin(request, response)).isNotNull();
+        return response;
+    }
+
+    private String decodeSeries(Cookie cookie) {
+        String value = new String(Base64.getDecoder().decode(cookie.getValue()), StandardCharsets.UTF_8);
+        return value.substring(0, value.indexOf(':'));
+    }
+
+    private int countTokens() {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from REMEMBER_ME_TOKEN", Integer.class);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.company.sociallogin.security;
+
+import com.company.sociallogin.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SocialUserMappingTest {
+
+    private static final Map<String, String> PROPERTIES = Map.of(
+            "sociallogin.providers.google.subject-claim", "sub",
+            "sociallogin.providers.google.username-prefix", "google:",
+            "sociallogin.providers.google.email-claim", "email",
+            "sociallogin.providers.google.first-name-claim", "given_name",
+            "sociallogin.providers.google.last-name-claim", "family_name",
+            "sociallogin.providers.github.subject-claim", "id",
+            "sociallogin.providers.github.username-prefix", "github:",
+            "sociallogin.providers.github.email-claim", "email",
+            "sociallogin.providers.github.name-claim", "name",
+            "sociallogin.providers.github.name-split", "first-space");
+
+    private final SocialUserMappings mappings = new SocialUserMappings(bindProperties(),
+            clientRegistrations("google", "github"));
+
+    @Test
+    void test_github() {
+        SocialUserMapping mapping = mappings.get("github");
+        Map<String, Object> attributes = Map.of("id", 42, "email", "jdoe@example.com", "name", "John van Doe");
+        User user = new User();
+        mapping.apply(user, attributes);
+
+        assertThat(mapping.getUsername(attributes)).isEqualTo("github:42");
+        assertThat(user.getEmail()).isEqualTo("jdoe@example.com");
+        assertThat(user.getFirstName()).isEqualTo("John");
+        assertThat(user.getLastName()).isEqualTo("van Doe");
+    }
+
+    @Test
+    void test_google() {
+        SocialUserMapping mapping = mappings.get("google");
+        Map<String, Object> attributes = Map.of("sub", "1078", "email", "jdoe@example.com",
+                "given_name", "John", "family_name", "Doe");
+        User user = new User();
+        mapping.apply(user, attributes);
+
+        assertThat(mapping.getUsername(attributes)).isEqualTo("google:1078");
+        assertThat(user.getFirstName()).isEqualTo("John");
+        assertThat(user.getLastName()).isEqualTo("Doe");
+    }
+
+    @Test
+    void test_malformedSubject() {
+        SocialUserMapping mapping = mappings.get("github");
+
+        assertThat(mapping.getUsername(Map.of("id", 9_000_000_000L))).isEqualTo("github:9000000000");
+        assertThatThrownBy(() -> mapping.getUsername(Map.of()))
+                .isInstanceOf(OAuth2AuthenticationException.class);
+        assertThatThrownBy(() -> mapping.getUsername(Map.of("id", " ")))
+                .isInstanceOf(OAuth2AuthenticationException.class);
+        assertThatThrownBy(() -> mapping.getUsername(Map.of("id", 4.2)))
+                .isInstanceOf(OAuth2AuthenticationException.class);
+        assertThatThrownBy(() -> mapping.getUsername(Map.of("id", List.of(42))))
+                .isInstanceOf(OAuth2AuthenticationException.class);
+        assertThatThrownBy(() -> mappings.get("gitlab"))
+                .isInstanceOf(OAuth2AuthenticationException.class);
+    }
+
+    @Test
+    void test_malformedClaims() {
+        SocialUserMapping mapping = mappings.get("github");
+
+        User user = new User();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("email", List.of("jdoe@example.com"));
+        attributes.put("name", 42);
+        mapping.apply(user, attributes);
+        assertThat(user.getEmail()).isNull();
+        assertThat(user.getFirstName()).isNull();
+        assertThat(user.getLastName()).isNull();
+
+        user = new User();
+        mapping.apply(user, Map.of("name", "   "));
+        assertThat(user.getLastName()).isNull();
+
+        user = new User();
+        mapping.apply(user, Map.of("name", " Doe "));
+        assertThat(user.getFirstName()).isNull();
+        assertThat(user.getLastName()).isEqualTo("Doe");
+    }
+
+    @Test
+    void test_missingSubjectClaimFailsAtStartup() {
+        SocialProviderProperties properties = new SocialProviderProperties();
+        properties.getProviders().put("github", new SocialProviderProperties.Provider());
+
+        assertThatThrownBy(() -> new SocialUserMappings(properties, clientRegistrations("github")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_unmappedRegistrationFailsAtStartup() {
+        assertThatThrownBy(() -> new SocialUserMappings(bindProperties(), clientRegistrations("google", "gitlab")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("gitlab");
+    }
+
+    private static SocialProviderProperties bindProperties() {
+        return new Binder(new MapConfigurationPropertySource(PROPERTIES))
+                .bind("sociallogin", SocialProviderProperties.class)
+                .get();
+    }
+
+    private static InMemoryClientRegistrationRepository clientRegistrations(String... registrationIds) {
+        List<ClientRegistration> registrations = new ArrayList<>();
+        for (String registrationId : registrationIds) {
+            CommonOAuth2Provider provider = registrationId.equals("google")
+                    ? CommonOAuth2Provider.GOOGLE
+                    : CommonOAuth2Provider.GITHUB;
+            registrations.add(provider.getBuilder(registrationId)
+                    .clientId("client-id")
+                    .clientSecret("client-secret")
+                    .build());
+        }
+        return new InMemoryClientRegistrationRepository(registrations);
+    }
+}